@@ -195,7 +195,6 @@ class IasTestForAstri extends ComponentClient{
 				config.getMonitoredSystemId(),
 				config.getSinkServer(), 
 				config.getSinkPort(), 
-				Plugin.getScheduledExecutorService(), 
 				jsonWriter);
 
 		plugin = new Plugin(config,jsonPublisher);
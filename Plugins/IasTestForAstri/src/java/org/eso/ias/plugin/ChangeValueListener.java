@@ -22,4 +22,17 @@ public interface ChangeValueListener {
 	 * @param value the not <code>null</code> value to notify to the listener
 	 */
 	public void monitoredValueUpdated(ValueToSend value);
+	
+	/**
+	 * Notify the listener that the value of the monitor point
+	 * has been updated and must be sent to the core of the IAS
+	 * as soon as possible.
+	 * <P>
+	 * The default implementation delegates to {@link #monitoredValueUpdated(ValueToSend)}.
+	 * 
+	 * @param value the not <code>null</code> value to notify to the listener
+	 */
+	public default void monitoredValueUpdatedImmediately(ValueToSend value) {
+		monitoredValueUpdated(value);
+	}
 }
@@ -1,6 +1,7 @@
 package org.eso.ias.plugin;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -159,7 +160,20 @@ public class DetailedStatsCollector {
 		data.updated();
 		monitorPointsFreqs.put(id, data);
 	}
-	
+
+	/**
+	 * The monitor points with the given IDs have been
+	 * updated in a single batch.
+	 *
+	 * @param ids The not <code>null</code> nor empty IDs of
+	 *           the updated monitor points
+	 */
+	public synchronized void mPointsUpdated(Collection<String> ids) {
+		for (String id: ids) {
+			mPointUpdated(id);
+		}
+	}
+
 	/**
 	 * Get the {@value #MONITOR_POINTS_TO_LOG} most frequently updated monitor points
 	 * 
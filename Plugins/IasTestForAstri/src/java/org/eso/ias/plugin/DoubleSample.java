@@ -0,0 +1,56 @@
+package org.eso.ias.plugin;
+
+/**
+ * A sample whose value is a <code>double</code>.
+ * <P>
+ * The value is stored in {@link #doubleValue} without boxing it 
+ * in a {@link Double}: {@link Sample#value} is <code>null</code>.
+ * 
+ * A sample is immutable.
+ * 
+ * @author acaproni
+ *
+ */
+public class DoubleSample extends Sample {
+	
+	/**
+	 * The value red from the remote system
+	 */
+	public final double doubleValue;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param value The value red from the system
+	 * @param timestamp The timestamp
+	 */
+	public DoubleSample(double value, long timestamp) {
+		super(timestamp);
+		this.doubleValue=value;
+	}
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param value The value red from the system
+	 */
+	public DoubleSample(double value) {
+		this(value,System.currentTimeMillis());
+	}
+
+	/**
+	 * @see Sample#getValue()
+	 */
+	@Override
+	public Object getValue() {
+		return Double.valueOf(doubleValue);
+	}
+
+	/**
+	 * @see Sample#valueToString()
+	 */
+	@Override
+	public String valueToString() {
+		return Double.toString(doubleValue);
+	}
+}
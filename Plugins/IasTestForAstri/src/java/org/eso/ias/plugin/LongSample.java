@@ -0,0 +1,56 @@
+package org.eso.ias.plugin;
+
+/**
+ * A sample whose value is a <code>long</code>.
+ * <P>
+ * The value is stored in {@link #longValue} without boxing it 
+ * in a {@link Long}: {@link Sample#value} is <code>null</code>.
+ * 
+ * A sample is immutable.
+ * 
+ * @author acaproni
+ *
+ */
+public class LongSample extends Sample {
+	
+	/**
+	 * The value red from the remote system
+	 */
+	public final long longValue;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param value The value red from the system
+	 * @param timestamp The timestamp
+	 */
+	public LongSample(long value, long timestamp) {
+		super(timestamp);
+		this.longValue=value;
+	}
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param value The value red from the system
+	 */
+	public LongSample(long value) {
+		this(value,System.currentTimeMillis());
+	}
+
+	/**
+	 * @see Sample#getValue()
+	 */
+	@Override
+	public Object getValue() {
+		return Long.valueOf(longValue);
+	}
+
+	/**
+	 * @see Sample#valueToString()
+	 */
+	@Override
+	public String valueToString() {
+		return Long.toString(longValue);
+	}
+}
@@ -0,0 +1,79 @@
+package org.eso.ias.plugin;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The update of a monitor point to submit to the plugin
+ * together with other updates in a single call to
+ * {@link Plugin#updateMonitorPointValues(java.util.Collection)}.
+ * <P>
+ * An update is composed of the ID of the monitor point, the new {@link Sample}
+ * and, optionally, the new operational mode of the monitor point.
+ *
+ * <P><code>MonitorPointUpdate</code> is immutable.
+ *
+ * @author acaproni
+ *
+ */
+public class MonitorPointUpdate {
+
+	/**
+	 * The ID of the monitor point to update
+	 */
+	public final String id;
+
+	/**
+	 * The sample to submit to the monitor point
+	 */
+	public final Sample sample;
+
+	/**
+	 * The operational mode to set in the monitor point before submitting
+	 * the sample; if empty the operational mode of the monitor point
+	 * is not changed
+	 */
+	public final Optional<OperationalMode> operationalMode;
+
+	/**
+	 * Constructor
+	 *
+	 * @param id The not <code>null</code> nor empty ID of the monitor point
+	 * @param sample The not <code>null</code> sample to submit to the monitor point
+	 * @param opMode The operational mode of the monitor point;
+	 *               if <code>null</code> the operational mode is not changed
+	 */
+	public MonitorPointUpdate(String id, Sample sample, OperationalMode opMode) {
+		Objects.requireNonNull(id,"Invalid null ID");
+		if (id.trim().isEmpty()) {
+			throw new IllegalArgumentException("Invalid empty monitor point ID");
+		}
+		Objects.requireNonNull(sample,"Cannot update monitor point "+id+" with a null sample");
+		this.id=id;
+		this.sample=sample;
+		this.operationalMode=Optional.ofNullable(opMode);
+	}
+
+	/**
+	 * Builds an update that does not change the operational mode
+	 * of the monitor point
+	 *
+	 * @param id The not <code>null</code> nor empty ID of the monitor point
+	 * @param sample The not <code>null</code> sample to submit to the monitor point
+	 */
+	public MonitorPointUpdate(String id, Sample sample) {
+		this(id,sample,null);
+	}
+
+	/**
+	 * Builds an update for the passed value and operational mode
+	 *
+	 * @param id The not <code>null</code> nor empty ID of the monitor point
+	 * @param value The not <code>null</code> value of the monitor point
+	 * @param opMode The operational mode of the monitor point;
+	 *               if <code>null</code> the operational mode is not changed
+	 */
+	public MonitorPointUpdate(String id, Object value, OperationalMode opMode) {
+		this(id,new Sample(value),opMode);
+	}
+}
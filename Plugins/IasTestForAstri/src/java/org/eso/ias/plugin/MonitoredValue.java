@@ -1,16 +1,22 @@
 package org.eso.ias.plugin;
 
+import java.util.Collections;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.PriorityQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eso.ias.plugin.filter.Filter;
 import org.eso.ias.plugin.filter.FilterException;
 import org.eso.ias.plugin.filter.FilteredValue;
+import org.eso.ias.plugin.filter.FilteredValue.PrimitiveType;
 import org.eso.ias.plugin.filter.NoneFilter;
+import org.eso.ias.plugin.thread.ExecutorRefreshScheduler;
+import org.eso.ias.plugin.thread.RefreshScheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,7 +45,52 @@ import org.slf4j.LoggerFactory;
  * 	<LI>immediately if the generated value changed
  * 	<LI>after the time interval elapses by a timer task.
  * </UL>
- * A timer task implemented by the {@link #run()} resend to the core the last value sent. 
+ * A timer task implemented by the {@link #run()} resend to the core the last value sent
+ * if no value has been sent in the last refresh time interval.
+ * <P>
+ * Sending a value moves forward the deadline of the next refresh ({@link #refreshDeadline},
+ * the last slot of the monitor point not after the point in time of the sending plus {@link #refreshRate}) 
+ * without touching the timer: 
+ * when the timer task runs before the deadline, it only schedules itself again at the deadline.
+ * So the load on the scheduler does not depend on the rate of the samples
+ * but only on the refresh rate: each monitor point has at most one task in the scheduler
+ * and the task runs at most once in each refresh period, because it always 
+ * schedules itself at a slot of the monitor point in the future. 
+ * <BR>The deadlines are not checked by a single task that sweeps all the monitor points:
+ * such a task should run at least every {@link #minAllowedFastLaneRefreshRate} to honor the 
+ * refresh rates and would cost O(n) at each run. The timer task of a monitor point instead costs 
+ * O(1) to schedule and to run with the {@link org.eso.ias.plugin.thread.HashedWheelTimer}
+ * (O(log n) with the {@link ExecutorRefreshScheduler}), regardless of the number of monitor points.
+ * <BR>The refresh of the monitor points with the same refresh rate is spread 
+ * over the refresh period: the timer task resends the value in the slot 
+ * of the period given by the hash of the ID ({@link #refreshPhase}) so that the 
+ * monitor points built at the same time do not refresh all in the same millisecond.
+ * <P>
+ * Monitor points with the default filter ({@link NoneFilter}) are in <em>pass-through</em> mode:
+ * the submitted samples do not go through the filter and its history but
+ * are sent to the listener as they are ({@link #passThrough}).
+ * <P>
+ * The samples must be submitted to the filter in time order: a sample whose timestamp 
+ * is not newer then that of the last sample submitted to the filter is discarded 
+ * and counted ({@link #numOfLateSamples}). 
+ * <BR>Samples produced by different threads or received from the network can arrive slightly 
+ * out of order: if the {@link #reorderWindow} is greater then 0, the samples are held in
+ * the {@link #reorderBuffer} and submitted to the filter in time order when they are older 
+ * then the newest received sample by at least the reorder window or 
+ * when they have been in the buffer for the reorder window. 
+ * This adds a latency of up to the reorder window to the sending of the values.
+ * <P>
+ * If a deadband is set ({@link #setDeadband(double, double)}), a new value that 
+ * did not change (or changed less then the deadband) since the last value sent
+ * is not sent to the listener: the last sent value is anyhow resent by the
+ * timer task when the refresh rate elapses.
+ * <P>
+ * The values of monitor points of the fast lane ({@link #fastLane}) or flagged as urgent 
+ * ({@link #setUrgent(boolean)}), and the values of alarms whose state changed 
+ * (i.e. a SET alarm becomes CLEARED or vice versa) are sent to the listener to be published 
+ * immediately ({@link ChangeValueListener#monitoredValueUpdatedImmediately(ValueToSend)}): 
+ * the other values, and the values resent by the timer task, are published 
+ * with the throttling of the publisher.
  * 
  * @author acaproni
  *
@@ -62,6 +113,12 @@ public class MonitoredValue implements Runnable {
 	 */
 	public final static long minAllowedRefreshRate=50;
 	
+	/**
+	 * The minimum allowed {@link #refreshRate} of the monitor points 
+	 * of the {@link #fastLane}
+	 */
+	public final static long minAllowedFastLaneRefreshRate=1;
+	
 	/**
 	 * The {@link #refreshRate} of the monitored can be dynamically changed
 	 * but can never be greater then the allowed maximum 
@@ -74,7 +131,25 @@ public class MonitoredValue implements Runnable {
 	 * the value must be sent to the IAS core on change or before the
 	 * refresh rate expires
 	 */
-	public long refreshRate;
+	public volatile long refreshRate;
+	
+	/**
+	 * <code>true</code> if this monitor point belongs to the fast lane:
+	 * its new values are sent to the core of the IAS immediately 
+	 * ({@link ChangeValueListener#monitoredValueUpdatedImmediately(ValueToSend)})
+	 * instead of waiting for the throttling time of the publisher, and its refresh rate 
+	 * can be as low as {@link #minAllowedFastLaneRefreshRate}.
+	 * <BR>The values resent by the timer task are not sent immediately.
+	 */
+	public final boolean fastLane;
+	
+	/**
+	 * The deterministic offset, derived from the ID, of the refresh of this monitor point
+	 * in the refresh period
+	 * 
+	 * @see #delayToRefreshSlot(long)
+	 */
+	private final long refreshPhase;
 	
 	/**
 	 * The filter to apply to the acquired samples 
@@ -83,10 +158,137 @@ public class MonitoredValue implements Runnable {
 	private final Filter filter;
 	
 	/**
-	 * The scheduled executor service.
+	 * <code>true</code> if the filter is a {@link NoneFilter}: 
+	 * the samples are sent to the listener without being submitted to the filter
+	 * because the value to send is the value of the last sample.
+	 */
+	private final boolean passThrough;
+	
+	/**
+	 * The last sample submitted in pass-through mode
+	 * 
+	 * @see #passThrough
+	 */
+	private Sample lastSample = null;
+	
+	/**
+	 * A sample held in the {@link MonitoredValue#reorderBuffer}
+	 * 
+	 * @author acaproni
+	 *
+	 */
+	private static class BufferedSample {
+		
+		/**
+		 * The sample
+		 */
+		public final Sample sample;
+		
+		/**
+		 * The point in time when the sample has been put in the buffer
+		 */
+		public final long arrivalTime;
+
+		/**
+		 * Constructor
+		 * 
+		 * @param sample The sample
+		 * @param arrivalTime The point in time when the sample has been put in the buffer
+		 */
+		public BufferedSample(Sample sample, long arrivalTime) {
+			this.sample = sample;
+			this.arrivalTime = arrivalTime;
+		}
+	}
+	
+	/**
+	 * The time interval (msec) to wait for samples arriving out of order
+	 * before submitting them to the filter: 
+	 * samples are not reordered if it is 0.
+	 */
+	public final long reorderWindow;
+	
+	/**
+	 * The samples waiting to be submitted to the filter
+	 * ordered by their timestamps
+	 * 
+	 * @see #reorderWindow
+	 */
+	private final PriorityQueue<BufferedSample> reorderBuffer = 
+			new PriorityQueue<>((s1, s2) -> Long.compare(s1.sample.timestamp, s2.sample.timestamp));
+	
+	/**
+	 * The timestamp of the newest sample put in the {@link #reorderBuffer}
+	 */
+	private long newestBufferedTimestamp = Long.MIN_VALUE;
+	
+	/**
+	 * The timestamp of the last sample submitted to the filter 
+	 */
+	private long lastSubmittedTimestamp = Long.MIN_VALUE;
+	
+	/**
+	 * The future of the task that submits to the filter the samples 
+	 * held in the {@link #reorderBuffer} for the {@link #reorderWindow}.
+	 */
+	private ScheduledFuture<?> reorderFuture = null;
+	
+	/**
+	 * The number of samples discarded because older then the last sample
+	 * submitted to the filter
+	 */
+	private final AtomicLong numOfLateSamples = new AtomicLong(0);
+	
+	/**
+	 * The number of samples arrived out of order and submitted 
+	 * to the filter in the right order 
+	 */
+	private final AtomicLong numOfReorderedSamples = new AtomicLong(0);
+	
+	/**
+	 * The absolute deadband: a new numeric value is not sent if it differs 
+	 * from the last sent value by no more then the deadband.
+	 * 
+	 * @see #setDeadband(double, double)
+	 */
+	private volatile double absoluteDeadband = 0;
+	
+	/**
+	 * The relative deadband: a new numeric value is not sent if it differs 
+	 * from the last sent value by no more then this fraction of the last sent value.
+	 * 
+	 * @see #setDeadband(double, double)
+	 */
+	private volatile double relativeDeadband = 0;
+	
+	/**
+	 * The number of values not sent because inside the deadband
+	 */
+	private final AtomicLong numOfSuppressedValues = new AtomicLong(0);
+	
+	/**
+	 * The number of values resent by the timer task because no value 
+	 * has been sent in the last refresh time interval
+	 */
+	private final AtomicLong numOfResentValues = new AtomicLong(0);
+	
+	/**
+	 * <code>true</code> if this monitor point is urgent: its new values
+	 * are sent to the core of the IAS immediately 
+	 * ({@link ChangeValueListener#monitoredValueUpdatedImmediately(ValueToSend)})
+	 * even if it does not belong to the {@link #fastLane}.
+	 * <P>
+	 * The values resent by the timer task are not urgent.
+	 * 
+	 * @see #setUrgent(boolean)
+	 */
+	private volatile boolean urgent = false;
+	
+	/**
+	 * The scheduler of the refresh task.
 	 * It is needed to get a signal when the refresh rate elapses.
 	 */
-	private final ScheduledExecutorService schedExecutorSvc;
+	private final RefreshScheduler refreshScheduler;
 	
 	/**
 	 * The listener of updates of the value of this monitored point
@@ -99,13 +301,16 @@ public class MonitoredValue implements Runnable {
 	 * <P>
 	 * It is <code>null</code> when no value has been set.
 	 */
-	private ValueToSend lastSentValue = null;
+	private volatile ValueToSend lastSentValue = null;
 	
 	/**
-	 * The point in time when the last value has been
-	 * sent to the IAS core.
+	 * The point in time when the last value sent to the IAS core
+	 * must be resent.
+	 * <P>
+	 * It is the slot of this monitor point in the refresh period that comes at most 
+	 * one refresh rate after the last value has been sent.
 	 */
-	private long lastSentTimestamp;
+	private volatile long refreshDeadline;
 	
 	/**
 	 * The future instantiated by the timer task
@@ -121,7 +326,17 @@ public class MonitoredValue implements Runnable {
 	 * new sample (or the same semple).
 	 */
 	private final AtomicBoolean isPeriodicNotificationEnabled = new AtomicBoolean(true);
-	
+
+	/**
+	 * Set when submitting a sample to the filter of this monitor point
+	 * returned an error, by the {@link Plugin} or by the task that flushes the 
+	 * {@link #reorderBuffer}: the samples submitted to this
+	 * monitor point are rejected after that.
+	 *
+	 * @see Plugin#updateMonitorPointValue(int, Sample)
+	 */
+	private volatile boolean disabled=false;
+
 	/**
 	 * The operational mode of this monitored value.
 	 * <P>
@@ -135,33 +350,129 @@ public class MonitoredValue implements Runnable {
 	
 	/**
 	 * Build a {@link MonitoredValue} with the passed filter
+	 * <P>
+	 * The refresh rate is clamped in the allowed range 
+	 * like in {@link #setRefreshRate(long)}.
+	 * 
 	 * @param id The identifier of the value
-	 * @param refreshRate The refresh time interval in msec
+	 * @param refreshRate The refresh time interval in msec, greater then 0
 	 * @param filter The filter to apply to the samples
-	 * @param executorSvc The executor to schedule the thread
+	 * @param reorderWindow The time interval (msec) to wait for samples arriving out of order
+	 *                      (0 to discard samples arriving out of order)
+	 * @param fastLane <code>true</code> if the monitor point belongs to the fast lane
+	 * @param refreshScheduler The scheduler of the refresh task
 	 * @param listener The listener of updates
 	 */
 	public MonitoredValue(
 			String id, 
 			long refreshRate, 
 			Filter filter, 
-			ScheduledExecutorService executorSvc,
+			long reorderWindow,
+			boolean fastLane,
+			RefreshScheduler refreshScheduler,
 			ChangeValueListener listener) {
 		Objects.requireNonNull(id,"The ID can't be null");
 		if (id.trim().isEmpty()) {
 			throw new IllegalArgumentException("Invalid empty monitored value ID string");
 		}
 		Objects.requireNonNull(filter,"The filter can't be null");
-		Objects.requireNonNull(executorSvc,"The executor service can't be null");
+		Objects.requireNonNull(refreshScheduler,"The refresh scheduler can't be null");
 		Objects.requireNonNull(listener,"The listener can't be null");
+		if (refreshRate<=0) {
+			throw new IllegalArgumentException("Invalid refresh rate "+refreshRate+" for "+id);
+		}
 		this.id=id.trim();
-		this.refreshRate=refreshRate;
+		// Spread the bits of the hash code so that similar IDs
+		// get distant phases
+		int hash = this.id.hashCode()*0x9E3779B9;
+		this.refreshPhase=(hash^(hash>>>16)) & Integer.MAX_VALUE;
+		this.refreshRate=clampRefreshRate(this.id, refreshRate, fastLane);
 		this.filter = filter;
-		this.schedExecutorSvc=executorSvc;
+		this.passThrough = filter.getClass()==NoneFilter.class;
+		if (reorderWindow<0) {
+			throw new IllegalArgumentException("Invalid negative reorder window "+reorderWindow);
+		}
+		this.reorderWindow=reorderWindow;
+		this.fastLane=fastLane;
+		this.refreshScheduler=refreshScheduler;
 		this.listener=listener;
-		future = schedExecutorSvc.scheduleAtFixedRate(this, refreshRate, refreshRate, TimeUnit.MILLISECONDS);
+		scheduleRefresh(delayToRefreshSlot(System.currentTimeMillis()));
 		logger.debug("Monitor point {} created with a refresh rate of {}ms",this.id,this.refreshRate);
 	}
+	
+	/**
+	 * Build a {@link MonitoredValue} with the passed filter
+	 * that does not belong to the fast lane
+	 * 
+	 * @param id The identifier of the value
+	 * @param refreshRate The refresh time interval in msec
+	 * @param filter The filter to apply to the samples
+	 * @param reorderWindow The time interval (msec) to wait for samples arriving out of order
+	 *                      (0 to discard samples arriving out of order)
+	 * @param refreshScheduler The scheduler of the refresh task
+	 * @param listener The listener of updates
+	 */
+	public MonitoredValue(
+			String id, 
+			long refreshRate, 
+			Filter filter, 
+			long reorderWindow,
+			RefreshScheduler refreshScheduler,
+			ChangeValueListener listener) {
+		this(id,refreshRate,filter,reorderWindow,false,refreshScheduler,listener);
+	}
+	
+	/**
+	 * Build a {@link MonitoredValue} with the passed filter 
+	 * that discards the samples arriving out of order
+	 * 
+	 * @param id The identifier of the value
+	 * @param refreshRate The refresh time interval in msec
+	 * @param filter The filter to apply to the samples
+	 * @param refreshScheduler The scheduler of the refresh task
+	 * @param listener The listener of updates
+	 */
+	public MonitoredValue(
+			String id, 
+			long refreshRate, 
+			Filter filter, 
+			RefreshScheduler refreshScheduler,
+			ChangeValueListener listener) {
+		this(id,refreshRate,filter,0L,refreshScheduler,listener);
+	}
+	
+	/**
+	 * Build a {@link MonitoredValue} with the passed filter
+	 * @param id The identifier of the value
+	 * @param refreshRate The refresh time interval in msec
+	 * @param filter The filter to apply to the samples
+	 * @param executorSvc The executor to schedule the thread
+	 * @param listener The listener of updates
+	 */
+	public MonitoredValue(
+			String id, 
+			long refreshRate, 
+			Filter filter, 
+			ScheduledExecutorService executorSvc,
+			ChangeValueListener listener) {
+		this(id,refreshRate,filter,new ExecutorRefreshScheduler(executorSvc),listener);
+	}
+	
+	/**
+	 * Build a {@link MonitoredValue} with the default filter, {@link NoneFilter}
+	 * 
+	 * @param id The identifier of the value
+	 * @param refreshRate The refresh time interval
+	 * @param refreshScheduler The scheduler of the refresh task
+	 * @param listener The listener
+	 */
+	public MonitoredValue(
+			String id, 
+			long refreshRate, 
+			RefreshScheduler refreshScheduler,
+			ChangeValueListener listener) {
+		this(id,refreshRate, new NoneFilter(),refreshScheduler,listener);
+	}
 
 	/**
 	 * Build a {@link MonitoredValue} with the default filter, {@link NoneFilter}
@@ -186,35 +497,227 @@ public class MonitoredValue implements Runnable {
 	 * @return The value to send
 	 */
 	public Optional<FilteredValue> getValueTosend() {
+		if (passThrough) {
+			synchronized (this) {
+				return Optional.ofNullable(lastSample).map(s -> new FilteredValue(s, Collections.singletonList(s)));
+			}
+		}
 		return filter.apply();
 	}
 	
 	/**
 	 * Adds a new sample to this monitor point.
+	 * <P>
+	 * The sample is discarded if it is not newer then the last sample 
+	 * submitted to the filter; if the {@link #reorderWindow} is greater then 0, 
+	 * the sample is held in the {@link #reorderBuffer} and submitted to the filter later.
 	 * 
 	 * @param s The not-null sample to add to the monitored value
+	 * @return {@link SubmissionStatus#LATE_SAMPLE} if the sample has been discarded,
+	 *         {@link SubmissionStatus#DISABLED_MONITOR_POINT} if the monitor point has been disabled,
+	 *         {@link SubmissionStatus#ACCEPTED} otherwise
 	 * @throws FilterException If the submitted sample caused an exception in the filter
 	 */
-	public void submitSample(Sample s) throws FilterException {
+	public synchronized SubmissionStatus submitSample(Sample s) throws FilterException {
 		Objects.requireNonNull(s);
-		if(future.getDelay(TimeUnit.MILLISECONDS)<=minAllowedRefreshRate) {
-			rescheduleTimer();
+		if (disabled) {
+			return SubmissionStatus.DISABLED_MONITOR_POINT;
+		}
+		if (s.timestamp<=lastSubmittedTimestamp) {
+			numOfLateSamples.incrementAndGet();
+			logger.debug("Sample of {} discarded: older then the last submitted sample",id);
+			return SubmissionStatus.LATE_SAMPLE;
+		}
+		if (reorderWindow==0) {
+			submitSampleToFilter(s);
+			return SubmissionStatus.ACCEPTED;
+		}
+		if (s.timestamp<newestBufferedTimestamp) {
+			numOfReorderedSamples.incrementAndGet();
+		} else {
+			newestBufferedTimestamp=s.timestamp;
+		}
+		long now = System.currentTimeMillis();
+		reorderBuffer.add(new BufferedSample(s, now));
+		releaseBufferedSamples(now);
+		return SubmissionStatus.ACCEPTED;
+	}
+	
+	/**
+	 * Submit to the filter, in time order, the samples of the {@link #reorderBuffer}
+	 * that are older then the newest sample by at least the {@link #reorderWindow}
+	 * or that have been in the buffer for the reorder window.
+	 * <P>
+	 * If the buffer is not empty, a task is scheduled to submit 
+	 * the remaining samples when the reorder window elapses.
+	 * 
+	 * @param now The actual time (msec)
+	 * @throws FilterException If a submitted sample caused an exception in the filter
+	 */
+	private synchronized void releaseBufferedSamples(long now) throws FilterException {
+		while (!reorderBuffer.isEmpty()) {
+			BufferedSample oldest = reorderBuffer.peek();
+			if (oldest.sample.timestamp>newestBufferedTimestamp-reorderWindow && oldest.arrivalTime>now-reorderWindow) {
+				break;
+			}
+			reorderBuffer.poll();
+			if (oldest.sample.timestamp<=lastSubmittedTimestamp) {
+				// Duplicated timestamp
+				numOfLateSamples.incrementAndGet();
+			} else {
+				submitSampleToFilter(oldest.sample);
+			}
+		}
+		if (!reorderBuffer.isEmpty() && reorderFuture==null) {
+			long delay = Math.max(1L, reorderBuffer.peek().arrivalTime+reorderWindow-now);
+			reorderFuture = refreshScheduler.schedule(this::flushReorderBuffer, delay, TimeUnit.MILLISECONDS);
+		}
+	}
+	
+	/**
+	 * The task that submits to the filter the samples held 
+	 * in the {@link #reorderBuffer} for the {@link #reorderWindow}.
+	 * <P>
+	 * Like when the plugin submits a sample, the monitor point is disabled 
+	 * if the filter returns an error: the samples still in the buffer are discarded
+	 * and the plugin rejects the new samples.
+	 */
+	private synchronized void flushReorderBuffer() {
+		reorderFuture=null;
+		if (disabled) {
+			reorderBuffer.clear();
+			return;
+		}
+		try {
+			releaseBufferedSamples(System.currentTimeMillis());
+		} catch (FilterException fe) {
+			disable();
+			reorderBuffer.clear();
+			logger.error("Exception submitting a sample to the filter of {}: monitor point disabled",id,fe);
+		}
+	}
+	
+	/**
+	 * Submit the sample to the filter and sends the filtered value, if any, 
+	 * to the listener.
+	 * 
+	 * @param s The not-null sample newer then the last submitted sample
+	 * @throws FilterException If the submitted sample caused an exception in the filter
+	 */
+	private void submitSampleToFilter(Sample s) throws FilterException {
+		lastSubmittedTimestamp=s.timestamp;
+		if (passThrough) {
+			submitSamplePassThrough(s);
+			return;
+		}
+		filter.newSample(s).ifPresent(filteredValue -> sendValue(new ValueToSend(id,filteredValue,operationalMode)));
+	}
+	
+	/**
+	 * Send the passed sample to the listener, as it is, in pass-through mode.
+	 * <P>
+	 * The value to send is built directly from the sample without 
+	 * adding the sample to the history of the filter.
+	 * <P>
+	 * The caller must hold the lock of this object.
+	 *
+	 * @param s The not-null sample to send
+	 * @see #passThrough
+	 */
+	private void submitSamplePassThrough(Sample s) {
+		lastSample=s;
+		sendValue(new ValueToSend(id,s,operationalMode));
+	}
+	
+	/**
+	 * Send the new value to the listener unless it is inside the deadband.
+	 * 
+	 * @param value The not <code>null</code> new value to send to the IAS
+	 */
+	private void sendValue(ValueToSend value) {
+		ValueToSend lastValue = lastSentValue;
+		if (lastValue!=null && isInsideDeadband(value, lastValue)) {
+			numOfSuppressedValues.incrementAndGet();
+			return;
+		}
+		boolean immediately = fastLane || urgent || isAlarmStateChange(value, lastValue);
+		notifyListener(value, refreshSlotBefore(System.currentTimeMillis()+refreshRate), immediately);
+	}
+	
+	/**
+	 * Check if the new value changes the state of an alarm 
+	 * since the last value sent to the listener.
+	 * <P>
+	 * The first value of an alarm is a change of state.
+	 * 
+	 * @param value The new value
+	 * @param lastValue The last value sent to the listener, if any
+	 * @return <code>true</code> if the value is an alarm whose state changed
+	 */
+	private boolean isAlarmStateChange(ValueToSend value, ValueToSend lastValue) {
+		// Alarms are never stored in a java primitive:
+		// getValue() does not box the value
+		if (value.getPrimitiveType()!=PrimitiveType.NONE || !(value.getValue() instanceof AlarmSample)) {
+			return false;
 		}
-		filter.newSample(s).ifPresent(filteredValue -> notifyListener(new ValueToSend(id,filteredValue,operationalMode)));
+		return lastValue==null || value.getValue()!=lastValue.getValue();
+	}
+	
+	/**
+	 * Check if the new value is inside the deadband i.e. if it did not change 
+	 * or changed less then the deadband since the last sent value.
+	 * <P>
+	 * Non numeric values are inside the deadband only if they are equal.
+	 * A change of the operational mode is always sent.
+	 * 
+	 * @param value The new value
+	 * @param lastValue The last value sent
+	 * @return <code>true</code> if the new value is inside the deadband and must not be sent
+	 */
+	private boolean isInsideDeadband(ValueToSend value, ValueToSend lastValue) {
+		double absDeadband = absoluteDeadband;
+		double relDeadband = relativeDeadband;
+		if ((absDeadband==0 && relDeadband==0) || value.operationalMode!=lastValue.operationalMode) {
+			return false;
+		}
+		if (isNumeric(value) && isNumeric(lastValue)) {
+			double lastDouble = lastValue.getDoubleValue();
+			double delta = Math.abs(value.getDoubleValue()-lastDouble);
+			return delta<=Math.max(absDeadband, relDeadband*Math.abs(lastDouble));
+		}
+		return value.getValue().equals(lastValue.getValue());
+	}
+	
+	/**
+	 * @param value The filtered value
+	 * @return <code>true</code> if the passed value is numeric
+	 */
+	private static boolean isNumeric(FilteredValue value) {
+		return value.getPrimitiveType()!=PrimitiveType.NONE || value.getValue() instanceof Number;
 	}
 	
 	/**
 	 * Send the value to the listener that in turn will forward it to the IAS core.
 	 * 
 	 * @param value The not <code>null</code> value to send to the IAS
+	 * @param deadline The point in time when the value must be resent if no other value is sent
+	 * @param immediately <code>true</code> if the value must be published immediately
 	 */
-	private void notifyListener(ValueToSend value) {
+	private void notifyListener(ValueToSend value, long deadline, boolean immediately) {
 		Objects.requireNonNull(value, "Cannot notify a null value");
+		// The deadline is updated before notifying the listener so that the timer task
+		// does not resend the old value while the listener is processing the new one
+		long oldDeadline = refreshDeadline;
+		refreshDeadline=deadline;
 		try {
-			listener.monitoredValueUpdated(value);
-			lastSentTimestamp=System.currentTimeMillis();
+			if (immediately) {
+				listener.monitoredValueUpdatedImmediately(value);
+			} else {
+				listener.monitoredValueUpdated(value);
+			}
 			lastSentValue=value;
 		} catch (Exception e) {
+			refreshDeadline=oldDeadline;
 			// In case of error sending the value, we log the exception
 			// but do nothing else as we want to be ready to try to send it again
 			// later
@@ -223,26 +726,101 @@ public class MonitoredValue implements Runnable {
 	}
 	
 	/**
-	 * Reschedule the timer task after sending a value to the listener.
+	 * Schedule the timer task to run after the passed delay, 
+	 * if the periodic notification is enabled.
 	 * <P>
-	 * The timer must be scheduled to send the value to the listener 
-	 * at the latest when the refresh rate elapse. 
+	 * The timer task previously scheduled, if any, is cancelled so that
+	 * there is only one timer task for this monitor point.
+	 * 
+	 * @param delay The delay (msec) to run the timer task
 	 */
-	private synchronized void rescheduleTimer() {
-		future.cancel(false);
+	private synchronized void scheduleRefresh(long delay) {
+		if (future!=null) {
+			future.cancel(false);
+		}
 		if (isPeriodicNotificationEnabled.get()) {
-			future = schedExecutorSvc.scheduleAtFixedRate(this, refreshRate, refreshRate, TimeUnit.MILLISECONDS);
+			future = refreshScheduler.schedule(this, delay, TimeUnit.MILLISECONDS);
 		}
 	}
+	
+	/**
+	 * Return the delay to the next slot of this monitor point in the refresh period
+	 * i.e. to the next point in time that is {@link #refreshPhase} modulo the refresh rate.
+	 * 
+	 * @param now The actual time (msec)
+	 * @return the delay (msec) in ]0, refreshRate]
+	 */
+	private long delayToRefreshSlot(long now) {
+		// The public refresh rate is clamped by the constructor and setRefreshRate
+		// but the period must never be 0 even if it is set directly
+		long period = Math.max(refreshRate, minAllowedFastLaneRefreshRate);
+		long delay = Math.floorMod(refreshPhase-now, period);
+		return delay==0 ? period : delay;
+	}
+	
+	/**
+	 * Return the last slot of this monitor point in the refresh period
+	 * at or before the passed point in time.
+	 * <P>
+	 * The deadline after sending a new value is the last slot before the refresh rate elapses, 
+	 * so that the resends of the monitor points stay in their slots and 
+	 * the core of the IAS receives a value at least once every refresh rate, 
+	 * as it expects to consider the value valid.
+	 * <BR>The first resend can come sooner than the refresh rate after sending the value:
+	 * the following resends are one refresh rate apart.
+	 * 
+	 * @param time The point in time (msec)
+	 * @return the last slot (msec) at or before the passed time
+	 */
+	private long refreshSlotBefore(long time) {
+		long period = Math.max(refreshRate, minAllowedFastLaneRefreshRate);
+		return time-Math.floorMod(time-refreshPhase, period);
+	}
+	
+	/**
+	 * Reschedule the timer task when the refresh rate or 
+	 * the periodic notification changed.
+	 * <P>
+	 * The timer must be scheduled to send the value to the listener 
+	 * at the latest when the refresh rate elapse. 
+	 */
+	private void rescheduleTimer() {
+		scheduleRefresh(delayToRefreshSlot(System.currentTimeMillis()));
+	}
 
 	/**
 	 * The timer task scheduled when the refresh time interval elapses.
+	 * <P>
+	 * The last value is resent only if the deadline elapsed i.e.
+	 * if no value has been sent in the last refresh time interval: the value
+	 * of a monitor point updated faster then its refresh rate is never resent.
+	 * The task then schedules itself to run at the next deadline.
+	 * <P>
+	 * The method is synchronized like the submission of the samples so that 
+	 * the deadline and the value to resend cannot change while resending: 
+	 * otherwise the timer could resend an old value, and move back the deadline,
+	 * after a new value has been sent.
 	 * 
 	 * @see java.lang.Runnable#run()
 	 */
 	@Override
-	public void run() {
-		notifyListener(lastSentValue);
+	public synchronized void run() {
+		if (!isPeriodicNotificationEnabled.get()) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		long deadline = refreshDeadline;
+		if (now>=deadline) {
+			deadline=now+delayToRefreshSlot(now);
+			// Nothing to resend if no sample has been submitted yet
+			ValueToSend valueToResend = lastSentValue;
+			if (valueToResend!=null) {
+				numOfResentValues.incrementAndGet();
+				// The value did not change: the resend is not urgent even for the fast lane
+				notifyListener(valueToResend, deadline, false);
+			}
+		}
+		scheduleRefresh(deadline-now);
 	}
 	
 	/**
@@ -253,25 +831,40 @@ public class MonitoredValue implements Runnable {
 	 * {@link #enablePeriodicNotification(boolean)}.
 	 * 
 	 * @param newRefreshRate The new refresh rate (msecs), must be greater then {@link #minAllowedRefreshRate}
+	 *                       (or {@link #minAllowedFastLaneRefreshRate} for the monitor points of the fast lane)
 	 *                       and less then {@link #maxAllowedRefreshRate}
 	 * @return The new refresh rate (msec)
 	 * 
 	 */
 	public synchronized long setRefreshRate(long newRefreshRate) {
-		if (newRefreshRate<minAllowedRefreshRate) {
-			logger.warn("The requested refresh rate {} for {} was too low: {} will be set instead",newRefreshRate,id,minAllowedRefreshRate);
-			newRefreshRate=minAllowedRefreshRate;
-			
-		}
-		if (newRefreshRate>maxAllowedRefreshRate) {
-			logger.warn("The requested refresh rate {} for {} was too high: {} will be set instead",newRefreshRate,id,maxAllowedRefreshRate);
-			newRefreshRate=maxAllowedRefreshRate;
-		}
+		newRefreshRate=clampRefreshRate(id, newRefreshRate, fastLane);
 		refreshRate=newRefreshRate;
 		rescheduleTimer();
 		return newRefreshRate;
 	}
 	
+	/**
+	 * Clamp the passed refresh rate between the allowed minimum ({@link #minAllowedRefreshRate}
+	 * or {@link #minAllowedFastLaneRefreshRate} for the fast lane) and {@link #maxAllowedRefreshRate}.
+	 * 
+	 * @param id The identifier of the monitor point
+	 * @param refreshRate The requested refresh rate (msec)
+	 * @param fastLane <code>true</code> if the monitor point belongs to the fast lane
+	 * @return The refresh rate (msec) in the allowed range
+	 */
+	static long clampRefreshRate(String id, long refreshRate, boolean fastLane) {
+		long minRefreshRate = fastLane ? minAllowedFastLaneRefreshRate : minAllowedRefreshRate;
+		if (refreshRate<minRefreshRate) {
+			logger.warn("The requested refresh rate {} for {} was too low: {} will be set instead",refreshRate,id,minRefreshRate);
+			return minRefreshRate;
+		}
+		if (refreshRate>maxAllowedRefreshRate) {
+			logger.warn("The requested refresh rate {} for {} was too high: {} will be set instead",refreshRate,id,maxAllowedRefreshRate);
+			return maxAllowedRefreshRate;
+		}
+		return refreshRate;
+	}
+	
 	/**
 	 * Enable or disable the periodic sending of notifications.
 	 * 
@@ -283,6 +876,47 @@ public class MonitoredValue implements Runnable {
 		rescheduleTimer();
 	}
 	
+	/**
+	 * Set the deadbands of this monitor point: a new value 
+	 * is not sent to the IAS core if it differs from the last sent value 
+	 * by no more then the greater of the absolute deadband and the relative
+	 * deadband multiplied by the last sent value.
+	 * <P>
+	 * The deadband is disabled if both the deadbands are 0. 
+	 * Otherwise non numeric values are sent only if they changed.
+	 * 
+	 * @param absoluteDeadband The not negative absolute deadband
+	 * @param relativeDeadband The not negative relative deadband (for example <code>0.01</code> for 1%)
+	 */
+	public void setDeadband(double absoluteDeadband, double relativeDeadband) {
+		if (!(absoluteDeadband>=0) || !(relativeDeadband>=0)) {
+			throw new IllegalArgumentException("Invalid deadbands "+absoluteDeadband+" and "+relativeDeadband);
+		}
+		this.absoluteDeadband=absoluteDeadband;
+		this.relativeDeadband=relativeDeadband;
+	}
+	
+	/**
+	 * Flag this monitor point as urgent: its new values are sent 
+	 * to the core of the IAS immediately instead of waiting for the throttling
+	 * time of the publisher.
+	 * <P>
+	 * The changes of the state of the alarms are always sent immediately.
+	 * 
+	 * @param urgent <code>true</code> if the monitor point is urgent
+	 */
+	public void setUrgent(boolean urgent) {
+		this.urgent=urgent;
+	}
+	
+	/**
+	 * @return <code>true</code> if the monitor point is urgent
+	 * @see #setUrgent(boolean)
+	 */
+	public boolean isUrgent() {
+		return urgent;
+	}
+	
 	/**
 	 * Set the operational mode of this monitor point value.
 	 * <P>
@@ -298,4 +932,58 @@ public class MonitoredValue implements Runnable {
 		operationalMode= opMode;
 		return ret;
 	}
+
+	/**
+	 * Return and reset the number of samples discarded because
+	 * older then the last sample submitted to the filter
+	 * 
+	 * @return the number of samples discarded since the last call
+	 */
+	long getAndResetLateSamples() {
+		return numOfLateSamples.getAndSet(0L);
+	}
+	
+	/**
+	 * Return and reset the number of samples arrived out of order and
+	 * submitted to the filter in time order
+	 * 
+	 * @return the number of samples reordered since the last call
+	 */
+	long getAndResetReorderedSamples() {
+		return numOfReorderedSamples.getAndSet(0L);
+	}
+	
+	/**
+	 * Return and reset the number of values not sent
+	 * because inside the deadband
+	 * 
+	 * @return the number of values not sent since the last call
+	 */
+	long getAndResetSuppressedValues() {
+		return numOfSuppressedValues.getAndSet(0L);
+	}
+	
+	/**
+	 * Return and reset the number of values resent by the timer task
+	 * when the refresh rate elapsed
+	 * 
+	 * @return the number of values resent since the last call
+	 */
+	long getAndResetResentValues() {
+		return numOfResentValues.getAndSet(0L);
+	}
+	
+	/**
+	 * Disable this monitor point so that the plugin stops submitting samples to it.
+	 */
+	void disable() {
+		disabled=true;
+	}
+
+	/**
+	 * @return <code>true</code> if this monitor point has been disabled by the plugin
+	 */
+	boolean isDisabled() {
+		return disabled;
+	}
 }
@@ -1,27 +1,33 @@
 package org.eso.ias.plugin;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
-import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import org.eso.ias.plugin.config.PluginConfig;
 import org.eso.ias.plugin.config.Value;
+import org.eso.ias.plugin.filter.FilterFactory;
 import org.eso.ias.plugin.publisher.MonitorPointSender;
 import org.eso.ias.plugin.publisher.MonitorPointSender.SenderStats;
 import org.eso.ias.plugin.publisher.PublisherException;
+import org.eso.ias.plugin.thread.ExecutorRefreshScheduler;
+import org.eso.ias.plugin.thread.HashedWheelTimer;
 import org.eso.ias.plugin.thread.PluginThreadFactory;
+import org.eso.ias.plugin.thread.RefreshScheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,6 +39,17 @@ import org.slf4j.LoggerFactory;
  * core of all the monitored values.
  * <P>
  * Updates on the values of monitored point must be provided by calling {@link #updateMonitorPointValue(String, Sample)}.
+ * <BR>Producers that push many samples to a fixed set of monitor points can
+ * get the handle of each monitor point once with {@link #getMonitorPointHandle(String)}
+ * and then submit samples with {@link #updateMonitorPointValue(int, Sample)}
+ * that gets the monitor point out of an array instead of a map.
+ * <BR>Producers that read many monitor points at once can submit all of them 
+ * with a single call to {@link #updateMonitorPointValues(Collection)}.
+ * <BR>Producers that can receive unexpected samples (for example from the network) 
+ * should use {@link #tryUpdateMonitorPointValue(String, Sample)} or 
+ * {@link #tryUpdateMonitorPointValue(int, Sample)} that do not throw exceptions
+ * but return the {@link SubmissionStatus}: the samples rejected for each reason are
+ * counted and logged with the statistics ({@link #getRejectedSamplesStats()}).
  * <P
  * >Some terminology helps better understanding the methods and data structures:
  * <UL>
@@ -51,11 +68,28 @@ import org.slf4j.LoggerFactory;
  * The generation of the statistics is done by a dedicated thread that is started only
  * if the time interval is greater then 0.
  * <P>
+ * The filter of each monitor point is built by the {@link FilterFactory} 
+ * from the filter and the options in the configuration of the value.
+ * <P>
  * The operational mode can be defined for the entire plugin  ({@link #pluginOperationalMode}) 
  * or for a specific monitor point value.
  * If the operational mode for the plugin is set, it takes priority over the operational mode 
  * of the monitor point value (i.e. if a operational mode is set at plugin level,
  * it will be sent as the operational mode of each monitored value independently of their settings).
+ * <P>
+ * Each plugin has its own executors, shut down by {@link #shutdown()}: one refreshes 
+ * the monitor points and the other runs the tasks of the implementers 
+ * ({@link #getUserExecutorService()}) so that a slow read of the monitored system
+ * does not delay the refresh of the monitor points. 
+ * The publisher should be built with its own thread as well.
+ * <P>
+ * The monitor points of the <em>fast lane</em> ({@link Value#isFastLane()}) are 
+ * refreshed by a dedicated thread and their new values are sent to the core of the IAS
+ * immediately ({@link #monitoredValueUpdatedImmediately(ValueToSend)}) 
+ * instead of waiting for the throttling time of the publisher 
+ * together with the other monitor points.
+ * <BR>The same happens for the changes of the state of the alarms and 
+ * for the values flagged as urgent ({@link Value#isUrgent()}).
  * 
  *  
  * @author acaproni
@@ -69,7 +103,25 @@ public class Plugin implements ChangeValueListener {
 	 * <P>
 	 * The key is the ID of the monitor point
 	 */
-	private final Map<String,MonitoredValue> monitorPoints = Collections.synchronizedMap(new HashMap<>());
+	private final Map<String,MonitoredValue> monitorPoints = new ConcurrentHashMap<>();
+	
+	/**
+	 * The monitor points indexed by their handles.
+	 * <P>
+	 * The handle of a monitor point is its position in the array: 
+	 * the array is replaced by a bigger copy when a new monitor point is added 
+	 * (normally only while building the plugin) so that reading it 
+	 * does not require any lock.
+	 * 
+	 * @see #getMonitorPointHandle(String)
+	 */
+	private volatile MonitoredValue[] monitorPointsByHandle = new MonitoredValue[0];
+	
+	/**
+	 * The handles of the monitor points: the key is the ID of the monitor point
+	 * and the value is its position in {@link #monitorPointsByHandle}
+	 */
+	private final Map<String,Integer> monitorPointHandles = new ConcurrentHashMap<>();
 	
 	/**
 	 * The name of the property to let the plugin provide detailed statistics
@@ -108,24 +160,42 @@ public class Plugin implements ChangeValueListener {
 
 	/**
 	 * The property to let the use set the number of threads in the scheduled thread executor
+	 * that refreshes the monitor points of each plugin
 	 */
 	public static final String SCHEDULED_POOL_SIZE_PROPNAME = "org.eso.ias.plugin.scheduledthread.poolsize";
 	
 	/**
-	 * The default number of threads in the core is a  bit less of the number of available CPUs.
+	 * The default number of threads in the core is a  bit less of the number of available CPUs
+	 * (but at least one).
 	 * 
 	 * The task executed by those threads is to get values of monitored values applying filters 
 	 * and push the values to send in a queue (the sending will be done by another thread),
 	 * so it is a pure calculation. This number should give us a proper CPU usage without stealing
 	 * all the available resources in the server.
 	 */
-	public static final int defaultSchedExecutorPoolSize = Runtime.getRuntime().availableProcessors()/2;
+	public static final int defaultSchedExecutorPoolSize = Math.max(1, Runtime.getRuntime().availableProcessors()/2);
+	
+	/**
+	 * The number of threads in the scheduled pool executor shared by all the plugins 
+	 * (see {@link #getScheduledExecutorService()})
+	 */
+	public static final int schedExecutorPoolSize = 
+			Integer.getInteger(SCHEDULED_POOL_SIZE_PROPNAME, defaultSchedExecutorPoolSize)<=0 ?
+					defaultSchedExecutorPoolSize : Integer.getInteger(SCHEDULED_POOL_SIZE_PROPNAME, defaultSchedExecutorPoolSize);
 	
 	/**
-	 * The number of threads in the scheduled pool executor that get filtered values out of the
-	 * monitored values
+	 * The property to let the use set the number of threads in the scheduled thread executor
+	 * for the tasks of the implementers of the plugin
+	 * 
+	 * @see #getUserExecutorService()
 	 */
-	public static final int schedExecutorPoolSize = Integer.getInteger(SCHEDULED_POOL_SIZE_PROPNAME, defaultSchedExecutorPoolSize);
+	public static final String USER_POOL_SIZE_PROPNAME = "org.eso.ias.plugin.userthread.poolsize";
+	
+	/**
+	 * The default number of threads in the scheduled executor for the tasks 
+	 * of the implementers of the plugin
+	 */
+	public static final int defaultUserExecutorPoolSize = 1;
 	
 	/**
 	 * The thread factory for the plugin
@@ -133,10 +203,51 @@ public class Plugin implements ChangeValueListener {
 	protected static final ThreadFactory threadFactory = new PluginThreadFactory();
 
 	/**
-	 * The scheduled executor service
+	 * The scheduled executor service shared by all the plugins running in the JVM.
+	 * <P>
+	 * The plugin does not use this executor but its own executors 
+	 * ({@link #refreshExecutorSvc} and {@link #userExecutorSvc}).
+	 * The threads are started only if tasks are submitted to this executor.
+	 * 
+	 * @see #getScheduledExecutorService()
 	 */
 	protected static final ScheduledExecutorService schedExecutorSvc= Executors.newScheduledThreadPool(schedExecutorPoolSize, threadFactory);
 	
+	/**
+	 * The name of the property to refresh the monitor points with a {@link HashedWheelTimer}
+	 * instead of scheduling the refresh in the {@link #refreshExecutorSvc}.
+	 * <P>
+	 * The timer wheel schedules and cancels the refresh of a monitor point in O(1)
+	 * and should be preferred by plugins with many thousands of monitor points.
+	 * <BR>Due to the definition of {@link Boolean#getBoolean(String)}, 
+	 * the timer wheel is not used if the property is not set.
+	 * <BR>The property is read by the constructor after flushing the properties
+	 * so that it can be set in the configuration.
+	 */
+	public static final String REFRESH_TIMER_WHEEL_PROPNAME = "org.eso.ias.plugin.refresh.timerwheel";
+	
+	/**
+	 * The name of the property to set the duration (msec) of the tick of the timer wheel
+	 * i.e. the precision of the refresh ({@link HashedWheelTimer#defaultTickDuration} if not set).
+	 * <P>
+	 * The property is read by the constructor after flushing the properties
+	 * so that it can be set in the configuration.
+	 */
+	public static final String TIMER_WHEEL_TICK_PROPNAME = "org.eso.ias.plugin.refresh.timerwheel.tick";
+	
+	/**
+	 * The name of the property to set the time interval (msec) to wait for samples 
+	 * arriving out of order before submitting them to the filters
+	 * 
+	 * @see MonitoredValue#reorderWindow
+	 */
+	public static final String REORDER_WINDOW_PROPNAME = "org.eso.ias.plugin.reorder.window";
+	
+	/**
+	 * The default reorder window: samples arriving out of order are discarded
+	 */
+	public static final long defaultReorderWindow = 0;
+	
 	/**
 	 * The logger
 	 */
@@ -164,7 +275,18 @@ public class Plugin implements ChangeValueListener {
 	 * The reason to disable the update of a monitor point is to catch
 	 * errors in the implementation of the filtering. 
 	 */
-	private final Set<String> disabledMonitorPoints = new TreeSet<>();
+	private final Set<String> disabledMonitorPoints = ConcurrentHashMap.newKeySet();
+	
+	/**
+	 * The number of samples rejected for each reason: the index 
+	 * is the ordinal of the {@link SubmissionStatus}.
+	 * <P>
+	 * The samples discarded because arrived late are counted 
+	 * by each {@link MonitoredValue}.
+	 * 
+	 * @see #getRejectedSamplesStats()
+	 */
+	private final AtomicLongArray rejectedSamples = new AtomicLongArray(SubmissionStatus.values().length);
 	
 	/**
 	 * The object that sends monitor points to the core of the IAS.
@@ -179,6 +301,46 @@ public class Plugin implements ChangeValueListener {
 	 * operational mode.
 	 */
 	private Optional<OperationalMode> pluginOperationalMode = Optional.empty();
+	
+	/**
+	 * The executor of this plugin that refreshes the monitor points 
+	 * and logs the statistics.
+	 * <P>
+	 * The number of threads is read from the {@value #SCHEDULED_POOL_SIZE_PROPNAME}
+	 * property that can be set in the configuration of the plugin.
+	 */
+	private final ScheduledExecutorService refreshExecutorSvc;
+	
+	/**
+	 * The executor of this plugin for the tasks of the implementers
+	 * like polling the monitored system.
+	 * <P>
+	 * The number of threads is read from the {@value #USER_POOL_SIZE_PROPNAME}
+	 * property that can be set in the configuration of the plugin.
+	 * 
+	 * @see #getUserExecutorService()
+	 */
+	private final ScheduledExecutorService userExecutorSvc;
+	
+	/**
+	 * The scheduler of the refresh of the monitor points
+	 */
+	protected final RefreshScheduler refreshScheduler;
+	
+	/**
+	 * The executor to refresh the monitor points of the fast lane 
+	 * (see {@link MonitoredValue#fastLane}).
+	 * <P>
+	 * The thread of the executor is started only if there are 
+	 * monitor points in the fast lane.
+	 */
+	private final ScheduledExecutorService fastLaneExecutorSvc;
+	
+	/**
+	 * The scheduler of the refresh of the monitor points of the fast lane
+	 * that is not delayed by the refresh of the other monitor points
+	 */
+	protected final RefreshScheduler fastLaneRefreshScheduler;
 
 	/**
 	 * Build a plugin with the passed parameters.
@@ -211,10 +373,57 @@ public class Plugin implements ChangeValueListener {
 		}
 		flushProperties(props);
 		this.mpPublisher=sender;
+		
+		// The sizes of the pools are read after flushing the properties
+		// so that they can be set in the configuration
+		int refreshPoolSize = Integer.getInteger(SCHEDULED_POOL_SIZE_PROPNAME, defaultSchedExecutorPoolSize);
+		refreshExecutorSvc = Executors.newScheduledThreadPool(
+				refreshPoolSize<=0 ? defaultSchedExecutorPoolSize : refreshPoolSize, 
+				threadFactory);
+		int userPoolSize = Integer.getInteger(USER_POOL_SIZE_PROPNAME, defaultUserExecutorPoolSize);
+		userExecutorSvc = Executors.newScheduledThreadPool(
+				userPoolSize<=0 ? defaultUserExecutorPoolSize : userPoolSize, 
+				threadFactory);
+		if (Boolean.getBoolean(REFRESH_TIMER_WHEEL_PROPNAME)) {
+			long timerWheelTick = Long.getLong(TIMER_WHEEL_TICK_PROPNAME, HashedWheelTimer.defaultTickDuration);
+			if (timerWheelTick<=0) {
+				timerWheelTick=HashedWheelTimer.defaultTickDuration;
+			}
+			refreshScheduler = new HashedWheelTimer(
+					timerWheelTick, 
+					HashedWheelTimer.defaultWheelSize, 
+					threadFactory, 
+					refreshExecutorSvc);
+			logger.info("The refresh of the monitor points is scheduled by a timer wheel with a tick of {}ms",timerWheelTick);
+		} else {
+			refreshScheduler = new ExecutorRefreshScheduler(refreshExecutorSvc);
+		}
+		fastLaneExecutorSvc = Executors.newSingleThreadScheduledExecutor(threadFactory);
+		fastLaneRefreshScheduler = new ExecutorRefreshScheduler(fastLaneExecutorSvc);
+		long reorderWindow = Long.getLong(REORDER_WINDOW_PROPNAME, defaultReorderWindow);
+		if (reorderWindow<0) {
+			reorderWindow=defaultReorderWindow;
+		}
+		if (reorderWindow>=MonitoredValue.minAllowedRefreshRate) {
+			logger.warn("The reorder window of {}ms delays the sending of the values of the monitor points",reorderWindow);
+		}
+		final long mPointsReorderWindow=reorderWindow;
+		
 		logger.info("Plugin (ID=%s) started",pluginId);
 		values.forEach(v -> { 
 			try {
-			putMonitoredPoint(new MonitoredValue(v.getId(), v.getRefreshTime(), schedExecutorSvc, this));
+			// The samples of the monitor points of the fast lane are not delayed for reordering 
+			MonitoredValue mVal = new MonitoredValue(
+					v.getId(), 
+					MonitoredValue.clampRefreshRate(v.getId(), v.getRefreshTime(), v.isFastLane()), 
+					FilterFactory.getFilter(v.getFilter(), v.getFilterOptions()), 
+					v.isFastLane() ? 0L : mPointsReorderWindow,
+					v.isFastLane(),
+					v.isFastLane() ? fastLaneRefreshScheduler : refreshScheduler, 
+					this);
+			mVal.setDeadband(v.getAbsoluteDeadband(), v.getRelativeDeadband());
+			mVal.setUrgent(v.isUrgent());
+			putMonitoredPoint(mVal);
 		}catch (Exception e){
 			logger.error("Error adding monitor point "+v.getId(),e);
 		} });
@@ -280,17 +489,31 @@ public class Plugin implements ChangeValueListener {
 				@Override
 				public void run() {
 					SenderStats senderStats = mpPublisher.getStats();
-					logger.info("#Submitted samples = {}; #Monitored points sent to the IAS = {}; #Messages sent to the IAS {}; #Bytes sent to the IAS = {}; #errors publishing messages {}",
+					logger.info("#Submitted samples = {}; #Monitored points sent to the IAS = {}; #Messages sent to the IAS {}; #Bytes sent to the IAS = {}; #errors publishing messages {}; #Monitored points discarded {}",
 							senderStats.numOfMonitorPointValuesSubmitted,
 							senderStats.numOfMonitorPointValuesSent,
 							senderStats.numOfMessagesSent,
 							senderStats.numOfBytesSent,
-							senderStats.numOfErrorsPublishing);
+							senderStats.numOfErrorsPublishing,
+							senderStats.numOfMonitorPointValuesDiscarded);
+					long reorderedSamples=0;
+					long suppressedValues=0;
+					long resentValues=0;
+					for (MonitoredValue mVal: monitorPoints.values()) {
+						reorderedSamples+=mVal.getAndResetReorderedSamples();
+						suppressedValues+=mVal.getAndResetSuppressedValues();
+						resentValues+=mVal.getAndResetResentValues();
+					}
+					logger.info("#Samples rejected = {}; #Samples reordered = {}; #Values inside the deadband not sent = {}; #Values resent on refresh = {}",
+							getRejectedSamplesStats(),
+							reorderedSamples,
+							suppressedValues,
+							resentValues);
 					detailedStatsCollector.ifPresent( DetailedStatsCollector::logAndReset);
 					
 				}
 			};
-			schedExecutorSvc.scheduleAtFixedRate(r,STATS_TIME_INTERVAL,STATS_TIME_INTERVAL,TimeUnit.MINUTES);
+			refreshExecutorSvc.scheduleAtFixedRate(r,STATS_TIME_INTERVAL,STATS_TIME_INTERVAL,TimeUnit.MINUTES);
 		}
 		// Adds the shutdown hook
 		Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
@@ -326,19 +549,36 @@ public class Plugin implements ChangeValueListener {
 	
 	/**
 	 * This method must be called when finished using the executor  
-	 * service to free the allocated resources. 
+	 * services of this plugin to free the allocated resources.
+	 * <P>
+	 * The executors of the other plugins running in the same JVM
+	 * are not affected.
 	 */
 	public void shutdownExecutorSvc() {
-		logger.info("Shutting down the scheduled executor service");
-		schedExecutorSvc.shutdown();
+		logger.info("Shutting down the scheduler of the refresh of monitor points");
+		refreshScheduler.shutdown();
+		logger.info("Shutting down the scheduled executor services");
+		shutdownExecutorSvc(userExecutorSvc);
+		shutdownExecutorSvc(fastLaneExecutorSvc);
+		shutdownExecutorSvc(refreshExecutorSvc);
+	}
+	
+	/**
+	 * Shuts down the passed executor service waiting for the
+	 * termination of the running tasks.
+	 * 
+	 * @param executorSvc The executor to shut down
+	 */
+	private void shutdownExecutorSvc(ScheduledExecutorService executorSvc) {
+		executorSvc.shutdown();
 		try {
 			// Wait a while for existing tasks to terminate
-			if (!schedExecutorSvc.awaitTermination(5, TimeUnit.SECONDS)) {
+			if (!executorSvc.awaitTermination(5, TimeUnit.SECONDS)) {
 				logger.info("Not all threads terminated: trying to force the termination");
-				List<Runnable> neverRunTasks=schedExecutorSvc.shutdownNow();
+				List<Runnable> neverRunTasks=executorSvc.shutdownNow();
 				logger.info("{} tasks never started execution",neverRunTasks.size());
 				// Wait a while for tasks to respond to being cancelled
-				if (!schedExecutorSvc.awaitTermination(10, TimeUnit.SECONDS)) {
+				if (!executorSvc.awaitTermination(10, TimeUnit.SECONDS)) {
 					logger.error("Pool did not terminate");
 				} else {
 					logger.info("The executor successfully terminated");
@@ -347,7 +587,7 @@ public class Plugin implements ChangeValueListener {
 				logger.info("The executor successfully terminated");
 			}
 		} catch (InterruptedException ie) {
-			schedExecutorSvc.shutdownNow();
+			executorSvc.shutdownNow();
 			Thread.currentThread().interrupt();
 		}
 	}
@@ -365,6 +605,47 @@ public class Plugin implements ChangeValueListener {
 		updateMonitorPointValue(mPointID,new Sample(value));
 	}
 	
+	/**
+	 * A new <code>double</code> value of a monitor point has been provided by the monitored system: 
+	 * the value is submitted to the monitor point with the given ID in a {@link DoubleSample}
+	 * without boxing it.
+	 * 
+	 * @param mPointID The ID of the monitored point to submit the sample to
+	 * @param value the new value to submit to the monitored point
+	 * @throws PluginException if adding the sample failed
+	 */
+	public void updateMonitorPointValue(String mPointID, double value) throws PluginException {
+		updateMonitorPointValue(mPointID,new DoubleSample(value));
+	}
+	
+	/**
+	 * A new <code>long</code> value of a monitor point has been provided by the monitored system: 
+	 * the value is submitted to the monitor point with the given ID in a {@link LongSample}
+	 * without boxing it.
+	 * 
+	 * @param mPointID The ID of the monitored point to submit the sample to
+	 * @param value the new value to submit to the monitored point
+	 * @throws PluginException if adding the sample failed
+	 */
+	public void updateMonitorPointValue(String mPointID, long value) throws PluginException {
+		updateMonitorPointValue(mPointID,new LongSample(value));
+	}
+	
+	/**
+	 * A new <code>boolean</code> value of a monitor point has been provided by the monitored system: 
+	 * the value is submitted to the monitor point with the given ID.
+	 * <P>
+	 * {@link Boolean#valueOf(boolean)} returns one of 2 cached objects
+	 * so there is no allocation for boxing the value.
+	 * 
+	 * @param mPointID The ID of the monitored point to submit the sample to
+	 * @param value the new value to submit to the monitored point
+	 * @throws PluginException if adding the sample failed
+	 */
+	public void updateMonitorPointValue(String mPointID, boolean value) throws PluginException {
+		updateMonitorPointValue(mPointID,new Sample(Boolean.valueOf(value)));
+	}
+	
 	/**
 	 * A new value of a monitor point (a new sample) has been provided by the monitored system: 
 	 * the value must be sent to to the monitor point with the given ID for filtering.
@@ -375,13 +656,15 @@ public class Plugin implements ChangeValueListener {
 	 */
 	public void updateMonitorPointValue(String mPointID, Sample sample) throws PluginException {
 		if (closed.get()) {
+			rejected(SubmissionStatus.PLUGIN_CLOSED);
 			return;
 		}
 		Objects.requireNonNull(mPointID, "The identifier of a monitor point can't be null");
 		if (mPointID.trim().isEmpty()) {
 			throw new IllegalArgumentException("Invalid empty monitor point ID: sample rejected");
 		}
-		if (disabledMonitorPoints.contains(mPointID)) {
+		if (disabledMonitorPoints.contains(mPointID) || isDisabled(monitorPoints.get(mPointID))) {
+			rejected(SubmissionStatus.DISABLED_MONITOR_POINT);
 			return;
 		}
 		Objects.requireNonNull(sample,"Cannot update monitor point "+mPointID+" with a null sample: rejected");
@@ -391,7 +674,9 @@ public class Plugin implements ChangeValueListener {
 				orElseThrow(() -> new PluginException("A monitor point with ID "+mPointID+" is not present")).
 					submitSample(sample);
 		} catch (Exception e) {
+			rejected(monitorPoints.containsKey(mPointID)?SubmissionStatus.FILTER_ERROR:SubmissionStatus.UNKNOWN_MONITOR_POINT);
 			disabledMonitorPoints.add(mPointID);
+			Optional.ofNullable(monitorPoints.get(mPointID)).ifPresent(MonitoredValue::disable);
 			logger.error("Exception sumbitting a sample to "+mPointID+": monitor point disabled");
 			throw new PluginException("Unknown exception submitting a sample to "+mPointID+" monitor point", e);
 		}
@@ -399,11 +684,318 @@ public class Plugin implements ChangeValueListener {
 		detailedStatsCollector.ifPresent(stats -> stats.mPointUpdated(mPointID));
 	}
 	
+	/**
+	 * Submit to the plugin the updates of many monitor points at once, 
+	 * like for example all the values read from a device in one poll.
+	 * <P>
+	 * For each update, the operational mode (if present) is set in the monitor point
+	 * and then the sample is submitted for filtering.
+	 * The detailed statistics are updated only once for the whole batch.
+	 * <P>
+	 * An error submitting an update disables the monitor point (like in
+	 * {@link #updateMonitorPointValue(String, Sample)}) but does not prevent
+	 * the other updates in the batch to be submitted.
+	 * 
+	 * @param updates The not <code>null</code> updates of the monitor points
+	 * @throws PluginException if submitting some of the updates failed
+	 */
+	public void updateMonitorPointValues(Collection<MonitorPointUpdate> updates) throws PluginException {
+		Objects.requireNonNull(updates,"The collection of updates can't be null");
+		if (closed.get() || updates.isEmpty()) {
+			return;
+		}
+		List<String> updatedIds = new ArrayList<>(updates.size());
+		List<String> failedIds = new ArrayList<>();
+		Exception firstError = null;
+		for (MonitorPointUpdate update: updates) {
+			Objects.requireNonNull(update,"Invalid null update: batch rejected");
+			MonitoredValue mVal = monitorPoints.get(update.id);
+			if (disabledMonitorPoints.contains(update.id) || isDisabled(mVal)) {
+				rejected(SubmissionStatus.DISABLED_MONITOR_POINT);
+				continue;
+			}
+			try {
+				if (mVal==null) {
+					throw new PluginException("A monitor point with ID "+update.id+" is not present");
+				}
+				update.operationalMode.ifPresent(mVal::setOperationalMode);
+				mVal.submitSample(update.sample);
+				updatedIds.add(update.id);
+			} catch (Exception e) {
+				rejected(mVal!=null?SubmissionStatus.FILTER_ERROR:SubmissionStatus.UNKNOWN_MONITOR_POINT);
+				disabledMonitorPoints.add(update.id);
+				if (mVal!=null) {
+					mVal.disable();
+				}
+				logger.error("Exception sumbitting a sample to "+update.id+": monitor point disabled");
+				failedIds.add(update.id);
+				if (firstError==null) {
+					firstError=e;
+				}
+			}
+		}
+		// Upadates the detailed statistics, if requested
+		detailedStatsCollector.ifPresent(stats -> stats.mPointsUpdated(updatedIds));
+		if (!failedIds.isEmpty()) {
+			throw new PluginException("Exception submitting samples to monitor points "+failedIds, firstError);
+		}
+	}
+	
+	/**
+	 * A new value of a monitor point has been provided by the monitored system: 
+	 * the value must be sent to to the monitor point with the given handle for filtering.
+	 * 
+	 * @param mPointHandle The handle of the monitored point to submit the sample to
+	 * @param value the new not <code>null</code> value to submit to the monitored point
+	 * @throws PluginException if adding the sample failed
+	 * @see #getMonitorPointHandle(String)
+	 */
+	public void updateMonitorPointValue(int mPointHandle, Object value) throws PluginException {
+		Objects.requireNonNull(value,"Cannot update monitor point with handle "+mPointHandle+" with a null value: rejected");
+		updateMonitorPointValue(mPointHandle,new Sample(value));
+	}
+	
+	/**
+	 * A new <code>double</code> value of a monitor point has been provided by the monitored system: 
+	 * the value is submitted to the monitor point with the given handle without boxing it.
+	 * 
+	 * @param mPointHandle The handle of the monitored point to submit the sample to
+	 * @param value the new value to submit to the monitored point
+	 * @throws PluginException if adding the sample failed
+	 * @see #updateMonitorPointValue(String, double)
+	 */
+	public void updateMonitorPointValue(int mPointHandle, double value) throws PluginException {
+		updateMonitorPointValue(mPointHandle,new DoubleSample(value));
+	}
+	
+	/**
+	 * A new <code>long</code> value of a monitor point has been provided by the monitored system: 
+	 * the value is submitted to the monitor point with the given handle without boxing it.
+	 * 
+	 * @param mPointHandle The handle of the monitored point to submit the sample to
+	 * @param value the new value to submit to the monitored point
+	 * @throws PluginException if adding the sample failed
+	 * @see #updateMonitorPointValue(String, long)
+	 */
+	public void updateMonitorPointValue(int mPointHandle, long value) throws PluginException {
+		updateMonitorPointValue(mPointHandle,new LongSample(value));
+	}
+	
+	/**
+	 * A new <code>boolean</code> value of a monitor point has been provided by the monitored system: 
+	 * the value is submitted to the monitor point with the given handle.
+	 * 
+	 * @param mPointHandle The handle of the monitored point to submit the sample to
+	 * @param value the new value to submit to the monitored point
+	 * @throws PluginException if adding the sample failed
+	 * @see #updateMonitorPointValue(String, boolean)
+	 */
+	public void updateMonitorPointValue(int mPointHandle, boolean value) throws PluginException {
+		updateMonitorPointValue(mPointHandle,new Sample(Boolean.valueOf(value)));
+	}
+	
+	/**
+	 * A new value of a monitor point (a new sample) has been provided by the monitored system: 
+	 * the value must be sent to to the monitor point with the given handle for filtering.
+	 * <P>
+	 * This method does the same of {@link #updateMonitorPointValue(String, Sample)}
+	 * but gets the monitor point from its handle without searching for its ID.
+	 * 
+	 * @param mPointHandle The handle of the monitored point to submit the sample to
+	 * @param sample the new sample to submit to the monitored point
+	 * @throws PluginException if adding the sample failed
+	 * @see #getMonitorPointHandle(String)
+	 */
+	public void updateMonitorPointValue(int mPointHandle, Sample sample) throws PluginException {
+		if (closed.get()) {
+			rejected(SubmissionStatus.PLUGIN_CLOSED);
+			return;
+		}
+		MonitoredValue[] mPoints = monitorPointsByHandle;
+		if (mPointHandle<0 || mPointHandle>=mPoints.length) {
+			throw new IllegalArgumentException("Invalid monitor point handle "+mPointHandle+": sample rejected");
+		}
+		MonitoredValue mVal = mPoints[mPointHandle];
+		if (mVal.isDisabled()) {
+			rejected(SubmissionStatus.DISABLED_MONITOR_POINT);
+			return;
+		}
+		Objects.requireNonNull(sample,"Cannot update monitor point "+mVal.id+" with a null sample: rejected");
+		
+		try {
+			mVal.submitSample(sample);
+		} catch (Exception e) {
+			rejected(SubmissionStatus.FILTER_ERROR);
+			disabledMonitorPoints.add(mVal.id);
+			mVal.disable();
+			logger.error("Exception sumbitting a sample to "+mVal.id+": monitor point disabled");
+			throw new PluginException("Unknown exception submitting a sample to "+mVal.id+" monitor point", e);
+		}
+		// Upadates the detailed statistics, if requested
+		detailedStatsCollector.ifPresent(stats -> stats.mPointUpdated(mVal.id));
+	}
+	
+	/**
+	 * A new value of a monitor point (a new sample) has been provided by the monitored system: 
+	 * the value is submitted to the monitor point with the given ID for filtering.
+	 * <P>
+	 * This method does the same of {@link #updateMonitorPointValue(String, Sample)}
+	 * but never throws exceptions: it returns the reason of the rejection of the sample 
+	 * that is also counted in the statistics.
+	 * It is meant for producers that can receive samples of unknown monitor points
+	 * (for example from the network) at a high rate.
+	 * 
+	 * @param mPointID The ID of the monitored point to submit the sample to
+	 * @param sample the new sample to submit to the monitored point
+	 * @return the status of the submission
+	 */
+	public SubmissionStatus tryUpdateMonitorPointValue(String mPointID, Sample sample) {
+		if (closed.get()) {
+			return rejected(SubmissionStatus.PLUGIN_CLOSED);
+		}
+		if (mPointID==null || sample==null) {
+			return rejected(SubmissionStatus.INVALID_SUBMISSION);
+		}
+		MonitoredValue mVal = monitorPoints.get(mPointID);
+		if (mVal==null) {
+			return rejected(SubmissionStatus.UNKNOWN_MONITOR_POINT);
+		}
+		return trySubmitSample(mVal, sample);
+	}
+	
+	/**
+	 * A new value of a monitor point (a new sample) has been provided by the monitored system: 
+	 * the value is submitted to the monitor point with the given handle for filtering.
+	 * <P>
+	 * This method does the same of {@link #updateMonitorPointValue(int, Sample)}
+	 * but never throws exceptions: it returns the reason of the rejection of the sample 
+	 * that is also counted in the statistics.
+	 * 
+	 * @param mPointHandle The handle of the monitored point to submit the sample to
+	 * @param sample the new sample to submit to the monitored point
+	 * @return the status of the submission
+	 * @see #getMonitorPointHandle(String)
+	 */
+	public SubmissionStatus tryUpdateMonitorPointValue(int mPointHandle, Sample sample) {
+		if (closed.get()) {
+			return rejected(SubmissionStatus.PLUGIN_CLOSED);
+		}
+		MonitoredValue[] mPoints = monitorPointsByHandle;
+		if (mPointHandle<0 || mPointHandle>=mPoints.length || sample==null) {
+			return rejected(SubmissionStatus.INVALID_SUBMISSION);
+		}
+		return trySubmitSample(mPoints[mPointHandle], sample);
+	}
+	
+	/**
+	 * Check if the passed monitor point has been disabled: the monitor point 
+	 * disables itself if the filter returns an error while submitting the samples 
+	 * held to reorder them.
+	 * 
+	 * @param mVal The monitor point, can be <code>null</code>
+	 * @return <code>true</code> if the monitor point is not <code>null</code> and has been disabled
+	 * @see MonitoredValue#isDisabled()
+	 */
+	private static boolean isDisabled(MonitoredValue mVal) {
+		return mVal!=null && mVal.isDisabled();
+	}
+	
+	/**
+	 * Submit the sample to the passed monitor point without throwing exceptions.
+	 * <P>
+	 * Like in {@link #updateMonitorPointValue(String, Sample)}, the monitor point
+	 * is disabled if the filter returns an error.
+	 * 
+	 * @param mVal The not <code>null</code> monitor point
+	 * @param sample The not <code>null</code> sample to submit
+	 * @return the status of the submission
+	 */
+	private SubmissionStatus trySubmitSample(MonitoredValue mVal, Sample sample) {
+		if (mVal.isDisabled()) {
+			return rejected(SubmissionStatus.DISABLED_MONITOR_POINT);
+		}
+		SubmissionStatus ret;
+		try {
+			// Late samples are counted by the monitor point
+			ret = mVal.submitSample(sample);
+		} catch (Exception e) {
+			disabledMonitorPoints.add(mVal.id);
+			mVal.disable();
+			logger.error("Exception sumbitting a sample to {}: monitor point disabled",mVal.id,e);
+			return rejected(SubmissionStatus.FILTER_ERROR);
+		}
+		if (ret.isAccepted()) {
+			// Upadates the detailed statistics, if requested
+			detailedStatsCollector.ifPresent(stats -> stats.mPointUpdated(mVal.id));
+		}
+		return ret;
+	}
+	
+	/**
+	 * Count a sample rejected for the passed reason
+	 * 
+	 * @param reason The reason of the rejection
+	 * @return the passed reason
+	 */
+	private SubmissionStatus rejected(SubmissionStatus reason) {
+		rejectedSamples.incrementAndGet(reason.ordinal());
+		return reason;
+	}
+	
+	/**
+	 * Return the number of samples rejected for each reason
+	 * since the last invocation of this method.
+	 * <P>
+	 * This method is called by the thread that logs the statistics.
+	 * 
+	 * @return the number of rejected samples for each reason
+	 */
+	public Map<SubmissionStatus, Long> getRejectedSamplesStats() {
+		Map<SubmissionStatus, Long> ret = new EnumMap<>(SubmissionStatus.class);
+		for (SubmissionStatus reason: SubmissionStatus.values()) {
+			if (!reason.isAccepted()) {
+				ret.put(reason, rejectedSamples.getAndSet(reason.ordinal(), 0L));
+			}
+		}
+		long lateSamples=ret.get(SubmissionStatus.LATE_SAMPLE);
+		for (MonitoredValue mVal: monitorPoints.values()) {
+			lateSamples+=mVal.getAndResetLateSamples();
+		}
+		ret.put(SubmissionStatus.LATE_SAMPLE, lateSamples);
+		return ret;
+	}
+	
+	/**
+	 * Get the handle of the monitor point with the passed ID.
+	 * <P>
+	 * The handle does not change during the life time of the plugin
+	 * so it can be retrieved once and used to submit all the samples of
+	 * the monitor point with {@link #updateMonitorPointValue(int, Sample)}.
+	 * 
+	 * @param mPointId The not <code>null</code> nor empty ID of a monitored point
+	 * @return the handle of the monitor point
+	 * @throws PluginException if the monitored value with the passed ID does not exist
+	 */
+	public int getMonitorPointHandle(String mPointId) throws PluginException {
+		Objects.requireNonNull(mPointId, "The monitored point ID can't be null");
+		if (mPointId.isEmpty()) {
+			throw new IllegalArgumentException("The monitored point ID can't be empty");
+		}
+		Integer handle = monitorPointHandles.get(mPointId);
+		if (handle==null) {
+			throw new PluginException("Monitor point "+mPointId+" does not exist");
+		}
+		return handle;
+	}
+	
 	/**
 	 * Adds a monitored point to the plugin managed map of monitor points.
 	 * <P>
 	 * The same monitor point (or if you prefer, 2 monitor points
 	 * with the same ID ) cannot be added to the map.
+	 * <P>
+	 * The added monitor point is assigned a handle, 
+	 * see {@link #getMonitorPointHandle(String)}.
 	 * 
 	 * @param mPoint The monitored point to add to the map
 	 * @return the number of monitor points managed by the plugin
@@ -417,6 +1009,12 @@ public class Plugin implements ChangeValueListener {
 				throw new PluginException("Monitor point "+mPoint.id+" is already defined");
 			}
 			monitorPoints.put(mPoint.id, mPoint);
+			MonitoredValue[] mPoints = Arrays.copyOf(monitorPointsByHandle, monitorPointsByHandle.length+1);
+			mPoints[mPoints.length-1]=mPoint;
+			// The array must be published before the handle so that a thread 
+			// getting the handle always finds the monitor point in the array
+			monitorPointsByHandle=mPoints;
+			monitorPointHandles.put(mPoint.id, mPoints.length-1);
 			sz=monitorPoints.size();
 		}
 		logger.info("IAS plugin %s now manages %d monitor points",pluginId,sz);
@@ -434,7 +1032,25 @@ public class Plugin implements ChangeValueListener {
 		Objects.requireNonNull(value, "Cannot update a null monitored value");
 		ValueToSend fv = pluginOperationalMode.map(mode -> value.withMode(mode)).orElse(value);
 		mpPublisher.offer(fv);
-		logger.info("Filtered value {} with value {} and mode {} has been forwarded for sending to the IAS",fv.id,fv.value.toString(),fv.operationalMode.toString());
+		if (logger.isInfoEnabled()) {
+			logger.info("Filtered value {} with value {} and mode {} has been forwarded for sending to the IAS",fv.id,fv.valueToString(),fv.operationalMode.toString());
+		}
+	}
+	
+	/**
+	 * A value of a monitor point of the fast lane or urgent, or the state of an alarm 
+	 * has been updated: it is sent to the core of the IAS immediately.
+	 * 
+	 * @see ChangeValueListener#monitoredValueUpdatedImmediately(ValueToSend)
+	 */
+	@Override
+	public void monitoredValueUpdatedImmediately(ValueToSend value) {
+		Objects.requireNonNull(value, "Cannot update a null monitored value");
+		ValueToSend fv = pluginOperationalMode.map(mode -> value.withMode(mode)).orElse(value);
+		mpPublisher.offerImmediately(fv);
+		if (logger.isDebugEnabled()) {
+			logger.debug("Filtered value {} with value {} and mode {} has been forwarded for immediate sending to the IAS",fv.id,fv.valueToString(),fv.operationalMode.toString());
+		}
 	}
 	
 	/**
@@ -480,11 +1096,34 @@ public class Plugin implements ChangeValueListener {
 	}
 	
 	/**
-	 * @return the scheduled executor
+	 * Return the scheduled executor shared by all the plugins running in the JVM.
+	 * <P>
+	 * Tasks submitted to this executor compete with the tasks of the 
+	 * other plugins: implementers should instead use the executor returned 
+	 * by {@link #getUserExecutorService()} and build the publisher 
+	 * with a dedicated thread.
+	 * <BR>Being shared, this executor is not shut down by {@link #shutdown()}:
+	 * its threads are daemons.
+	 * 
+	 * @return the scheduled executor shared by all the plugins
+	 * @deprecated use {@link #getUserExecutorService()}
 	 */
+	@Deprecated
 	public static ScheduledExecutorService getScheduledExecutorService() {
 		return schedExecutorSvc;
 	}
+	
+	/**
+	 * Return the scheduled executor of this plugin for the tasks
+	 * of the implementers, like polling the monitored system.
+	 * <P>
+	 * The executor is shut down together with the plugin.
+	 * 
+	 * @return the scheduled executor for the tasks of the implementers
+	 */
+	public ScheduledExecutorService getUserExecutorService() {
+		return userExecutorSvc;
+	}
 
 	/**
 	 * @return the threadFactory
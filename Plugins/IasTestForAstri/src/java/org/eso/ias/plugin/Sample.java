@@ -10,6 +10,12 @@ package org.eso.ias.plugin;
  * <P>
  * The alarm is a special case: to send alarms to the core
  * the type of {@link #value} must be {@link AlarmSample}.
+ * <P>
+ * Numeric samples can be submitted without boxing their values with
+ * {@link DoubleSample} and {@link LongSample}: for those samples
+ * {@link #value} is <code>null</code> and the value must be read
+ * with {@link #getValue()} or from the primitive field of the subclass.
+ * For this reason {@link #value} is deprecated.
  * 
  * A sample is immutable.
  * 
@@ -22,7 +28,14 @@ public class Sample {
 	 * The monitor point value or alarm red from the remote system.
 	 * <P>
 	 * Note that for alarms the value must be {@link AlarmSample}
+	 * <P>
+	 * It is <code>null</code> for samples whose value is a java primitive
+	 * 
+	 * @see #getValue()
+	 * @deprecated <code>null</code> for {@link DoubleSample} and {@link LongSample}: 
+	 *             use {@link #getValue()} that returns the value of all the samples
 	 */
+	@Deprecated
 	public final Object value;
 	
 	/**
@@ -63,4 +76,33 @@ public class Sample {
 		this.timestamp=System.currentTimeMillis();
 	}
 
+	/**
+	 * Constructor for the samples that store their value in a 
+	 * java primitive instead of {@link #value}.
+	 * 
+	 * @param timestamp The timestamp
+	 */
+	protected Sample(long timestamp) {
+		this.value=null;
+		this.timestamp=timestamp;
+	}
+	
+	/**
+	 * Return the value of the sample.
+	 * <P>
+	 * Samples whose value is a java primitive return a new object
+	 * wrapping the primitive.
+	 * 
+	 * @return the not <code>null</code> value of the sample
+	 */
+	public Object getValue() {
+		return value;
+	}
+	
+	/**
+	 * @return the string representation of the value of this sample
+	 */
+	public String valueToString() {
+		return value.toString();
+	}
 }
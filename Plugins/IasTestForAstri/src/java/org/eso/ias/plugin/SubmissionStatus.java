@@ -0,0 +1,62 @@
+package org.eso.ias.plugin;
+
+/**
+ * The result of submitting a sample to a monitor point
+ * without throwing exceptions.
+ * <P>
+ * The plugin counts the samples rejected for each reason
+ * and logs them with the other statistics.
+ *
+ * @see Plugin#tryUpdateMonitorPointValue(String, Sample)
+ * @see Plugin#tryUpdateMonitorPointValue(int, Sample)
+ * @author acaproni
+ */
+public enum SubmissionStatus {
+
+	/**
+	 * The sample has been accepted by the monitor point
+	 */
+	ACCEPTED,
+
+	/**
+	 * The sample has been rejected because the plugin is closed
+	 */
+	PLUGIN_CLOSED,
+
+	/**
+	 * The sample has been rejected because the sample or
+	 * the ID (or the handle) of the monitor point are not valid
+	 */
+	INVALID_SUBMISSION,
+
+	/**
+	 * The sample has been rejected because there is no
+	 * monitor point with the passed ID
+	 */
+	UNKNOWN_MONITOR_POINT,
+
+	/**
+	 * The sample has been rejected because the monitor point
+	 * has been disabled after an error
+	 */
+	DISABLED_MONITOR_POINT,
+
+	/**
+	 * The sample has been discarded because it is older then
+	 * the last sample submitted to the filter
+	 */
+	LATE_SAMPLE,
+
+	/**
+	 * The sample has been rejected by the filter:
+	 * the monitor point has been disabled
+	 */
+	FILTER_ERROR;
+
+	/**
+	 * @return <code>true</code> if the sample has been accepted
+	 */
+	public boolean isAccepted() {
+		return this==ACCEPTED;
+	}
+}
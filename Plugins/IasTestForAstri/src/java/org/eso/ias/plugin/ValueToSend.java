@@ -15,6 +15,10 @@ import org.eso.ias.plugin.filter.FilteredValue;
  * <P>
  * The <code>ValueToSend</code> adds more information not produced by the
  * filtering, like the operational mode or the identifier. 
+ * <P>
+ * <code>ValueToSend</code> is a compact {@link FilteredValue} that does not retain
+ * the samples used by the filter: it is kept in memory to be resent
+ * when the refresh rate elapses and by the publishers.
  * 
  * <P><code>ValueToSend</code> is immutable.
  * 
@@ -44,7 +48,7 @@ public class ValueToSend extends FilteredValue {
 	 * @param opMode The operational mode
 	 */
 	public ValueToSend(String id, Object value, List<Sample> samples, long monitoredSystemTimestamp, OperationalMode opMode) {
-		super(value, samples, monitoredSystemTimestamp);
+		super(new FilteredValue(value, samples, monitoredSystemTimestamp));
 		Objects.requireNonNull(opMode,"Invalid null operational mode");
 		Objects.requireNonNull(id,"Invalid null ID");
 		if (id.isEmpty()){ 
@@ -74,7 +78,35 @@ public class ValueToSend extends FilteredValue {
 	 * @param opMode The operational mode
 	 */
 	public ValueToSend(String id, FilteredValue filteredValue, OperationalMode opMode) {
-		this(id,filteredValue.value,filteredValue.samples, filteredValue.producedTimestamp,opMode);
+		super(filteredValue);
+		Objects.requireNonNull(opMode,"Invalid null operational mode");
+		Objects.requireNonNull(id,"Invalid null ID");
+		if (id.isEmpty()){ 
+			throw new IllegalArgumentException("Invalid empty ID");
+		}
+		this.id=id;
+		this.operationalMode=opMode;
+	}
+	
+	/**
+	 * Builds a <code>ValueToSend</code> with the value and the timestamp of the passed sample.
+	 * <P>
+	 * This constructor is used when there is no filtering: the value 
+	 * is produced by the sample only.
+	 * 
+	 * @param id The ID of the value 
+	 * @param sample The not <code>null</code> sample with the value to send
+	 * @param opMode The operational mode
+	 */
+	public ValueToSend(String id, Sample sample, OperationalMode opMode) {
+		super(sample);
+		Objects.requireNonNull(opMode,"Invalid null operational mode");
+		Objects.requireNonNull(id,"Invalid null ID");
+		if (id.isEmpty()){ 
+			throw new IllegalArgumentException("Invalid empty ID");
+		}
+		this.id=id;
+		this.operationalMode=opMode;
 	}
 	
 	/**
@@ -85,7 +117,7 @@ public class ValueToSend extends FilteredValue {
 	 * @param filteredValue The value produced applying the filter
 	 */
 	public ValueToSend(String id, FilteredValue filteredValue) {
-		this(id,filteredValue.value,filteredValue.samples, filteredValue.producedTimestamp,OperationalMode.UNKNOWN);
+		this(id,filteredValue,OperationalMode.UNKNOWN);
 	}
 
 	/**
@@ -96,7 +128,7 @@ public class ValueToSend extends FilteredValue {
 	 * @return The new value with the passed operational mode
 	 */
 	public ValueToSend withMode(OperationalMode opMode) {
-		return new ValueToSend(this.id, this.value, this.samples, this.producedTimestamp,opMode);
+		return new ValueToSend(this.id, this, opMode);
 	}
 	
 	/**
@@ -112,7 +144,7 @@ public class ValueToSend extends FilteredValue {
 		Date date = new Date(filteredTimestamp);
 		ret.append(df.format(date));
 		ret.append(", value=");
-		ret.append(value.toString());
+		ret.append(valueToString());
 		ret.append(", operational mode=");
 		ret.append(operationalMode.toString());
 		ret.append(')');
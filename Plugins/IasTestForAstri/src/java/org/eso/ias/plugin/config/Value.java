@@ -2,6 +2,8 @@ package org.eso.ias.plugin.config;
 
 import java.util.Objects;
 
+import org.eso.ias.plugin.filter.FilterException;
+import org.eso.ias.plugin.filter.FilterFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,14 +34,55 @@ public class Value {
 	
 	/**
 	 * The optional filter to apply to the value
+	 * 
+	 * @see FilterFactory
 	 */
 	private String filter;
 	
 	/**
 	 * A optional comma separated list of options to pass
-	 * to the filter
+	 * to the filter, like <code>samples=10</code>
+	 * 
+	 * @see org.eso.ias.plugin.filter.FilterOptions
 	 */
 	private String filterOptions;
+	
+	/**
+	 * The optional absolute deadband: a new numeric value is not sent to the 
+	 * server if it differs from the last sent value by no more then the deadband.
+	 * <P>
+	 * The deadband is disabled if both the absolute and the relative deadbands are 0.
+	 * 
+	 * @see org.eso.ias.plugin.MonitoredValue#setDeadband(double, double)
+	 */
+	private double absoluteDeadband;
+	
+	/**
+	 * The optional relative deadband: a new numeric value is not sent to the
+	 * server if it differs from the last sent value by no more then this fraction
+	 * of the last sent value (for example <code>0.01</code> for 1%).
+	 * 
+	 * @see #absoluteDeadband
+	 */
+	private double relativeDeadband;
+	
+	/**
+	 * <code>true</code> if the value belongs to the fast lane: 
+	 * its updates are sent immediately to the server 
+	 * and the refresh time can be less then 
+	 * {@link org.eso.ias.plugin.MonitoredValue#minAllowedRefreshRate}
+	 * 
+	 * @see org.eso.ias.plugin.MonitoredValue#fastLane
+	 */
+	private boolean fastLane;
+	
+	/**
+	 * <code>true</code> if the updates of the value are urgent 
+	 * and must be sent immediately to the server
+	 * 
+	 * @see org.eso.ias.plugin.MonitoredValue#setUrgent(boolean)
+	 */
+	private boolean urgent;
 
 	/**
 	 * @return the id
@@ -96,10 +139,66 @@ public class Value {
 	public void setFilterOptions(String filterOptions) {
 		this.filterOptions = filterOptions;
 	}
+
+	/**
+	 * @return the absoluteDeadband
+	 */
+	public double getAbsoluteDeadband() {
+		return absoluteDeadband;
+	}
+
+	/**
+	 * @param absoluteDeadband the absoluteDeadband to set
+	 */
+	public void setAbsoluteDeadband(double absoluteDeadband) {
+		this.absoluteDeadband = absoluteDeadband;
+	}
+
+	/**
+	 * @return the relativeDeadband
+	 */
+	public double getRelativeDeadband() {
+		return relativeDeadband;
+	}
+
+	/**
+	 * @param relativeDeadband the relativeDeadband to set
+	 */
+	public void setRelativeDeadband(double relativeDeadband) {
+		this.relativeDeadband = relativeDeadband;
+	}
+	
+	/**
+	 * @return the fastLane
+	 */
+	public boolean isFastLane() {
+		return fastLane;
+	}
+
+	/**
+	 * @param fastLane the fastLane to set
+	 */
+	public void setFastLane(boolean fastLane) {
+		this.fastLane = fastLane;
+	}
+	
+	/**
+	 * @return the urgent
+	 */
+	public boolean isUrgent() {
+		return urgent;
+	}
+
+	/**
+	 * @param urgent the urgent to set
+	 */
+	public void setUrgent(boolean urgent) {
+		this.urgent = urgent;
+	}
 	
 	@Override
 	public int hashCode() {
-	     return Objects.hash(id, refreshTime, filter, filterOptions);
+	     return Objects.hash(id, refreshTime, filter, filterOptions, absoluteDeadband, relativeDeadband, fastLane, urgent);
 	 }
 	
 	@Override
@@ -112,6 +211,8 @@ public class Value {
 	 * <UL>
 	 * 	<LI>Non empty ID
 	 * 	<LI>positive refresh time
+	 * 	<LI>known filter with valid options
+	 * 	<LI>not negative deadbands
 	 * </ul>
 	 * 
 	 * @return <code>true</code> if the data contained in this object 
@@ -126,6 +227,16 @@ public class Value {
 			logger.error("Invalid refreshTime {}",refreshTime);
 			return false;
 		}
+		try {
+			FilterFactory.getFilter(filter, filterOptions);
+		} catch (FilterException fe) {
+			logger.error("Invalid filter {} with options {} of value {}: {}",filter,filterOptions,id,fe.getMessage());
+			return false;
+		}
+		if (!(absoluteDeadband>=0) || !(relativeDeadband>=0)) {
+			logger.error("Invalid deadbands {} (absolute) and {} (relative) of value {}",absoluteDeadband,relativeDeadband,id);
+			return false;
+		}
 		logger.debug("Value {} configuration is valid",id);
 		return true;
 	}
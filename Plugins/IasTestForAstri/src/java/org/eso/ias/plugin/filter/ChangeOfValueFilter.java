@@ -0,0 +1,80 @@
+package org.eso.ias.plugin.filter;
+
+/**
+ * A filter that sends the value of a sample only if it differs 
+ * from the last sent value by more then the {@link #deadband}.
+ * <P>
+ * Samples whose value is inside the deadband are not sent: the monitor point
+ * resends the last sent value when its refresh rate elapses.
+ * <BR>With a deadband of 0 (the default), only the samples 
+ * that do not change the value are discarded.
+ * 
+ * @author acaproni
+ *
+ */
+public class ChangeOfValueFilter extends NumericFilterBase {
+	
+	/**
+	 * The max difference (absolute value) from the last sent value
+	 * of the values that are not sent
+	 */
+	public final double deadband;
+	
+	/**
+	 * The value of the last sample
+	 */
+	private double value;
+	
+	/**
+	 * The last value to send
+	 */
+	private double lastSentValue;
+	
+	/**
+	 * <code>true</code> if no value has been sent yet
+	 */
+	private boolean first=true;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param deadband The max difference from the last sent value
+	 *                 of the values that are not sent
+	 */
+	public ChangeOfValueFilter(double deadband) {
+		if (!(deadband>=0)) {
+			throw new IllegalArgumentException("Invalid deadband "+deadband);
+		}
+		this.deadband=deadband;
+	}
+
+	/**
+	 * @see NumericFilterBase#sampleAdded(double, long)
+	 */
+	@Override
+	protected void sampleAdded(double value, long timestamp) {
+		this.value=value;
+	}
+
+	/**
+	 * @see NumericFilterBase#getFilteredValue()
+	 */
+	@Override
+	protected double getFilteredValue() {
+		return value;
+	}
+
+	/**
+	 * @return <code>true</code> if the value is out of the deadband 
+	 * @see NumericFilterBase#mustSend(double)
+	 */
+	@Override
+	protected boolean mustSend(double filteredValue) {
+		if (first || Math.abs(filteredValue-lastSentValue)>deadband) {
+			first=false;
+			lastSentValue=filteredValue;
+			return true;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,63 @@
+package org.eso.ias.plugin.filter;
+
+/**
+ * A filter that returns the exponentially weighted moving average 
+ * of the values of the samples:
+ * <BR><code>ewma = alpha*value + (1-alpha)*ewma</code>
+ * <P>
+ * The first sample initializes the average. 
+ * The higher the {@link #alpha}, the faster the average follows the samples.
+ * 
+ * @author acaproni
+ *
+ */
+public class EwmaFilter extends NumericFilterBase {
+	
+	/**
+	 * The smoothing factor in ]0,1]
+	 */
+	public final double alpha;
+	
+	/**
+	 * The average
+	 */
+	private double ewma;
+	
+	/**
+	 * <code>true</code> if no sample has been received yet
+	 */
+	private boolean first=true;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param alpha The smoothing factor in ]0,1]
+	 */
+	public EwmaFilter(double alpha) {
+		if (!(alpha>0 && alpha<=1)) {
+			throw new IllegalArgumentException("The smoothing factor must be in ]0,1]: "+alpha);
+		}
+		this.alpha=alpha;
+	}
+
+	/**
+	 * @see NumericFilterBase#sampleAdded(double, long)
+	 */
+	@Override
+	protected void sampleAdded(double value, long timestamp) {
+		if (first) {
+			ewma=value;
+			first=false;
+		} else {
+			ewma+=alpha*(value-ewma);
+		}
+	}
+
+	/**
+	 * @see NumericFilterBase#getFilteredValue()
+	 */
+	@Override
+	protected double getFilteredValue() {
+		return ewma;
+	}
+}
@@ -0,0 +1,77 @@
+package org.eso.ias.plugin.filter;
+
+/**
+ * Base class for the filters that return the minimum or the maximum
+ * of the values of the samples in the window.
+ * <P>
+ * The extreme is calculated with a monotonic deque: the {@link #candidates} 
+ * contains, in time order, only the samples of the window that can become the extreme
+ * i.e. the samples that are more extreme than all the samples received after them.
+ * The oldest candidate is the extreme of the window.
+ * <BR>Each sample enters and leaves the deque at most once so the cost 
+ * is amortized O(1) per sample.
+ * 
+ * @author acaproni
+ *
+ */
+public abstract class ExtremeFilterBase extends WindowFilterBase {
+	
+	/**
+	 * The samples that can become the extreme of the window
+	 */
+	private final NumericSampleHistory candidates = new NumericSampleHistory();
+
+	/**
+	 * Constructor
+	 * 
+	 * @param windowSize The max number of samples in the window: 
+	 *                   if not positive, the window is limited only by time
+	 * @param windowTime The time interval (msec) of the window: 
+	 *                   if not positive, the window is limited only by the number of samples
+	 */
+	public ExtremeFilterBase(int windowSize, long windowTime) {
+		super(windowSize,windowTime);
+	}
+	
+	/**
+	 * Compare two values
+	 * 
+	 * @param v1 The first value
+	 * @param v2 The second value
+	 * @return <code>true</code> if v1 is more extreme then v2 or equal to v2
+	 */
+	protected abstract boolean isExtreme(double v1, double v2);
+
+	/**
+	 * Remove from the candidates the samples that can't be the extreme
+	 * anymore because the new sample is more extreme.
+	 * 
+	 * @see WindowFilterBase#windowSampleAdded(double, long)
+	 */
+	@Override
+	protected void windowSampleAdded(double value, long timestamp) {
+		while (!candidates.isEmpty() && isExtreme(value, candidates.getNewestValue())) {
+			candidates.removeNewest(1);
+		}
+		candidates.addNewest(value, timestamp);
+	}
+
+	/**
+	 * @see WindowFilterBase#windowSampleRemoved(double, long)
+	 */
+	@Override
+	protected void windowSampleRemoved(double value, long timestamp) {
+		// Timestamps are unique as samples are strictly time ordered
+		if (!candidates.isEmpty() && candidates.getOldestTimestamp()==timestamp) {
+			candidates.removeOldest(1);
+		}
+	}
+
+	/**
+	 * @see NumericFilterBase#getFilteredValue()
+	 */
+	@Override
+	protected double getFilteredValue() {
+		return candidates.getOldestValue();
+	}
+}
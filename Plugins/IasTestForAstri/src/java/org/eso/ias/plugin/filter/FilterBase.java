@@ -1,10 +1,7 @@
 package org.eso.ias.plugin.filter;
 
-import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
-import java.util.Vector;
 import java.util.concurrent.TimeUnit;
 
 import org.eso.ias.plugin.Sample;
@@ -14,6 +11,10 @@ import org.eso.ias.plugin.Sample;
  * <P>
  * FilterBase keeps a time ordered {@link #history} of samples:
  * newest items are in the head of the list.
+ * <BR>The history is a circular buffer ({@link SampleHistory}) whose max size can be 
+ * passed in the constructor: adding a sample and removing old samples cost O(1) per sample
+ * and the filters can iterate over the samples with {@link #historySize()} 
+ * and {@link #getSample(int)} without allocating objects.
  * <P>
  * Implementation of filters must take care of removing elements from the history when 
  * a new element is added ({@link #sampleAdded(Sample)}) and/or when the filtered value
@@ -36,13 +37,13 @@ public abstract class FilterBase implements Filter {
 	/**
 	 * The last acquired samples. 
 	 * <P>
-	 * The list is ordered so that newest items are always
+	 * The history is ordered so that newest items are always
 	 * at the head.
 	 * <P>
-	 * The list is private to ensure it remains ordered: this class
+	 * The history is private to ensure it remains ordered: this class
 	 * provides methods to manipulate the history.
 	 */
-	private final LinkedList<Sample> history = new LinkedList<>();
+	private final SampleHistory history;
 	
 	/**
 	 * The point in time then the last sample has been submitted to
@@ -56,13 +57,31 @@ public abstract class FilterBase implements Filter {
 	 */
 	protected Optional<FilteredValue> lastReturnedValue = Optional.empty();
 	
+	/**
+	 * Constructor of a filter whose history is limited only by the memory
+	 */
+	public FilterBase() {
+		history = new SampleHistory();
+	}
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param maxHistorySize The max number of samples in the history:
+	 *                       adding a sample to a full history, removes the oldest sample
+	 */
+	public FilterBase(int maxHistorySize) {
+		history = new SampleHistory(maxHistorySize);
+	}
+	
 	/**
 	 * sampleAdded is executed after adding the sample to the history
 	 * to let the implementation of a filter does any computation it might need. 
 	 * 
 	 * @param newSample The sample to add
+	 * @throws FilterException If the filter cannot process the sample
 	 */
-	protected abstract void sampleAdded(Sample newSample);
+	protected abstract void sampleAdded(Sample newSample) throws FilterException;
 	
 	/**
 	 * {@link #apply()} calls this method of the filter to get the 
@@ -107,12 +126,12 @@ public abstract class FilterBase implements Filter {
 			// is more recent then that of the newest sample
 			// in the history
 			if (!history.isEmpty()) {
-				Sample s = history.peekFirst();
+				Sample s = history.getNewest();
 				if (s.timestamp>=newSample.timestamp) {
 					throw new FilterException("The new sample is older then the last submitted sample!");
 				}
 			}
-			history.addFirst(newSample);
+			history.addNewest(newSample);
 			sampleAdded(newSample);
 			return apply();
 		}
@@ -143,9 +162,7 @@ public abstract class FilterBase implements Filter {
 	protected int removeOldSamples(long timestamp) {
 		assert(timestamp>0);
 		synchronized (history) {
-			int size = history.size();
-			history.removeIf(s -> s.timestamp<=timestamp);
-			return size - history.size();
+			return history.removeOlderThan(timestamp);
 		}
 	}
 	
@@ -160,15 +177,7 @@ public abstract class FilterBase implements Filter {
 	protected int removeLastSamples(int nSamples) {
 		assert(nSamples>0);
 		synchronized (history) {
-			if (history.size()<=nSamples) {
-				return clearHistory();
-			}
-			int removed=0;
-			for (int t=0; t<nSamples; t++) {
-				history.removeLast();
-				removed++;
-			}
-			return removed;
+			return history.removeOldest(nSamples);
 		}
 	}
 	
@@ -182,14 +191,7 @@ public abstract class FilterBase implements Filter {
 	protected int keepNewest(int nSamples) {
 		assert(nSamples>0);
 		synchronized (history) {
-			int numOfSamplesToRemove = history.size()-nSamples;
-			if (numOfSamplesToRemove>0) {
-				return removeLastSamples(numOfSamplesToRemove);
-			} else {
-				// Nothing to be done as the history
-				// contains less sample that ones to keep
-				return 0;
-			}
+			return history.keepNewest(nSamples);
 		}
 	}
 	
@@ -197,13 +199,40 @@ public abstract class FilterBase implements Filter {
 	 * <code>historySnapshot</code> returns a snapshot of the actual history
 	 * that is part of the {@link FilteredValue} returned by {@link #apply()}.
 	 * <P>
-	 * The collection is a read-only view of a copy of the .history
+	 * The collection is a read-only copy of the history
 	 * 
 	 * @return a read-only snapshot of the actual history
 	 */
 	protected List<Sample> historySnapshot() {
 		synchronized(history) {
-			return Collections.unmodifiableList(new Vector<>(history)); 
+			return history.toList(); 
+		}
+	}
+	
+	/**
+	 * @return the number of samples in the history
+	 */
+	protected int historySize() {
+		synchronized(history) {
+			return history.size();
+		}
+	}
+	
+	/**
+	 * Get a sample of the history without removing it.
+	 * <P>
+	 * Filters iterate over the history from 0 (the newest sample) to
+	 * {@link #historySize()}-1 (the oldest sample): {@link #newSample(Sample)} 
+	 * holds the lock of the history while executing {@link #sampleAdded(Sample)} 
+	 * and {@link #applyFilter()} so the history does not change during the iteration.
+	 * 
+	 * @param index The index of the sample: 0 is the newest sample
+	 * @return the sample with the given index
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	protected Sample getSample(int index) {
+		synchronized(history) {
+			return history.get(index);
 		}
 	}
 	
@@ -216,7 +245,7 @@ public abstract class FilterBase implements Filter {
 	protected Optional<Sample> peekNewest() {
 		// The newest element is at the head
 		synchronized(history) {
-			return Optional.ofNullable(history.peekFirst());
+			return Optional.ofNullable(history.getNewest());
 		}
 	}
 	
@@ -227,9 +256,7 @@ public abstract class FilterBase implements Filter {
 	 */
 	protected int clearHistory() {
 		synchronized (history) {
-			int ret = history.size();
-			history.clear();
-			return ret;
+			return history.clear();
 		}
 	}
 	
@@ -242,7 +269,7 @@ public abstract class FilterBase implements Filter {
 	protected Optional<Sample> peekOldest() {
 		// The oldest sample is at the end of the list
 		synchronized(history) {
-			return Optional.ofNullable(history.peekLast());
+			return Optional.ofNullable(history.getOldest());
 		}
 	}
 }
@@ -0,0 +1,273 @@
+package org.eso.ias.plugin.filter;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The factory of the filters of the monitor points, built from the name
+ * and the options read from the configuration
+ * ({@link org.eso.ias.plugin.config.Value#getFilter()} and
+ * {@link org.eso.ias.plugin.config.Value#getFilterOptions()}).
+ * <P>
+ * The names of the filters are case insensitive.
+ * The factory knows the following filters:
+ * <UL>
+ * 	<LI>{@value #NONE}: {@link NoneFilter} (the default if no filter is configured)
+ * 	<LI>{@value #MEAN}: {@link MeanFilter} 
+ * 	<LI>{@value #MIN}: {@link MinFilter}
+ * 	<LI>{@value #MAX}: {@link MaxFilter}
+ * 	<LI>{@value #VARIANCE}: {@link VarianceFilter}
+ * 	<LI>{@value #STDDEV}: {@link StdDevFilter}
+ * 	<LI>{@value #QUANTILE}: {@link QuantileFilter} with option <code>quantile</code> (default {@value #defaultQuantile})
+ * 	<LI>{@value #MEDIAN}: {@link QuantileFilter} of the 0.5 quantile
+ * 	<LI>{@value #EWMA}: {@link EwmaFilter} with option <code>alpha</code> (default {@value #defaultAlpha})
+ * 	<LI>{@value #CHANGE_OF_VALUE}: {@link ChangeOfValueFilter} with option <code>deadband</code> (default 0)
+ * </UL>
+ * The window of the filters that calculate statistics over a window of samples 
+ * is set by the <code>samples</code> (max number of samples) and/or 
+ * <code>time</code> (msec) options; 
+ * if none of them is set, the window contains the last {@value #defaultWindowSize} samples.
+ * For example <code>time=60000</code> for a window of 1 minute.
+ * <P>
+ * Other filters can be added with {@link #register(String, FilterBuilder)}.
+ *
+ * @see FilterOptions
+ * @author acaproni
+ *
+ */
+public class FilterFactory {
+
+	/**
+	 * Builds a filter from its options
+	 *
+	 * @author acaproni
+	 *
+	 */
+	public interface FilterBuilder {
+
+		/**
+		 * Build a new filter
+		 *
+		 * @param options The options of the filter
+		 * @return the new filter
+		 * @throws FilterException if the options are not valid
+		 */
+		public Filter build(FilterOptions options) throws FilterException;
+	}
+
+	/**
+	 * The name of the {@link NoneFilter}
+	 */
+	public static final String NONE = "None";
+
+	/**
+	 * The name of the {@link MeanFilter}
+	 */
+	public static final String MEAN = "Mean";
+
+	/**
+	 * The name of the {@link MinFilter}
+	 */
+	public static final String MIN = "Min";
+
+	/**
+	 * The name of the {@link MaxFilter}
+	 */
+	public static final String MAX = "Max";
+
+	/**
+	 * The name of the {@link VarianceFilter}
+	 */
+	public static final String VARIANCE = "Variance";
+
+	/**
+	 * The name of the {@link StdDevFilter}
+	 */
+	public static final String STDDEV = "StdDev";
+
+	/**
+	 * The name of the {@link QuantileFilter}
+	 */
+	public static final String QUANTILE = "Quantile";
+
+	/**
+	 * The name of the {@link QuantileFilter} of the median
+	 */
+	public static final String MEDIAN = "Median";
+
+	/**
+	 * The name of the {@link EwmaFilter}
+	 */
+	public static final String EWMA = "EWMA";
+
+	/**
+	 * The name of the {@link ChangeOfValueFilter}
+	 */
+	public static final String CHANGE_OF_VALUE = "ChangeOfValue";
+
+	/**
+	 * The option to set the max number of samples in the window
+	 */
+	public static final String SAMPLES_OPTION = "samples";
+
+	/**
+	 * The option to set the time interval (msec) of the window
+	 */
+	public static final String TIME_OPTION = "time";
+
+	/**
+	 * The default number of samples in the window of the filters
+	 */
+	public static final int defaultWindowSize = 10;
+
+	/**
+	 * The default quantile of the {@link QuantileFilter}
+	 */
+	public static final double defaultQuantile = 0.5;
+
+	/**
+	 * The default smoothing factor of the {@link EwmaFilter}
+	 */
+	public static final double defaultAlpha = 0.5;
+
+	/**
+	 * The logger
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(FilterFactory.class);
+
+	/**
+	 * The builders of the filters: the key is the name
+	 * of the filter in lower case
+	 */
+	private static final Map<String, FilterBuilder> builders = new ConcurrentHashMap<>();
+
+	static {
+		builders.put(NONE.toLowerCase(), options -> {
+			options.checkNames();
+			return new NoneFilter();
+		});
+		builders.put(MEAN.toLowerCase(), options -> {
+			options.checkNames(SAMPLES_OPTION,TIME_OPTION);
+			return new MeanFilter(getWindowSize(options),getWindowTime(options));
+		});
+		builders.put(MIN.toLowerCase(), options -> {
+			options.checkNames(SAMPLES_OPTION,TIME_OPTION);
+			return new MinFilter(getWindowSize(options),getWindowTime(options));
+		});
+		builders.put(MAX.toLowerCase(), options -> {
+			options.checkNames(SAMPLES_OPTION,TIME_OPTION);
+			return new MaxFilter(getWindowSize(options),getWindowTime(options));
+		});
+		builders.put(VARIANCE.toLowerCase(), options -> {
+			options.checkNames(SAMPLES_OPTION,TIME_OPTION);
+			return new VarianceFilter(getWindowSize(options),getWindowTime(options));
+		});
+		builders.put(STDDEV.toLowerCase(), options -> {
+			options.checkNames(SAMPLES_OPTION,TIME_OPTION);
+			return new StdDevFilter(getWindowSize(options),getWindowTime(options));
+		});
+		builders.put(QUANTILE.toLowerCase(), options -> {
+			options.checkNames("quantile",SAMPLES_OPTION,TIME_OPTION);
+			double quantile = options.getDouble("quantile", defaultQuantile);
+			if (!(quantile>=0 && quantile<=1)) {
+				throw new FilterException("The quantile must be in [0,1]: "+quantile);
+			}
+			return new QuantileFilter(quantile,getWindowSize(options),getWindowTime(options));
+		});
+		builders.put(MEDIAN.toLowerCase(), options -> {
+			options.checkNames(SAMPLES_OPTION,TIME_OPTION);
+			return new QuantileFilter(0.5,getWindowSize(options),getWindowTime(options));
+		});
+		builders.put(EWMA.toLowerCase(), options -> {
+			options.checkNames("alpha");
+			double alpha = options.getDouble("alpha", defaultAlpha);
+			if (!(alpha>0 && alpha<=1)) {
+				throw new FilterException("The smoothing factor must be in ]0,1]: "+alpha);
+			}
+			return new EwmaFilter(alpha);
+		});
+		builders.put(CHANGE_OF_VALUE.toLowerCase(), options -> {
+			options.checkNames("deadband");
+			double deadband = options.getDouble("deadband", 0);
+			if (!(deadband>=0)) {
+				throw new FilterException("Invalid deadband "+deadband);
+			}
+			return new ChangeOfValueFilter(deadband);
+		});
+	}
+
+	/**
+	 * Read the max number of samples in the window from the {@value #SAMPLES_OPTION} option
+	 *
+	 * @param options The options of the filter
+	 * @return the max number of samples in the window, 
+	 *         0 if the window is limited only by the {@value #TIME_OPTION} option
+	 * @throws FilterException if the number of samples is not valid
+	 */
+	private static int getWindowSize(FilterOptions options) throws FilterException {
+		int windowSize = options.getInt(SAMPLES_OPTION, options.has(TIME_OPTION) ? 0 : defaultWindowSize);
+		if (windowSize<=0 && options.has(SAMPLES_OPTION)) {
+			throw new FilterException("Invalid number of samples in the window: "+windowSize);
+		}
+		return windowSize;
+	}
+
+	/**
+	 * Read the time interval of the window from the {@value #TIME_OPTION} option
+	 *
+	 * @param options The options of the filter
+	 * @return the time interval (msec) of the window, 
+	 *         0 if the window is limited only by the {@value #SAMPLES_OPTION} option
+	 * @throws FilterException if the time interval is not valid
+	 */
+	private static long getWindowTime(FilterOptions options) throws FilterException {
+		long windowTime = options.getLong(TIME_OPTION, 0);
+		if (windowTime<=0 && options.has(TIME_OPTION)) {
+			throw new FilterException("Invalid time interval of the window: "+windowTime);
+		}
+		return windowTime;
+	}
+
+	/**
+	 * Register a builder of filters replacing the builder
+	 * already registered with the same name, if any.
+	 *
+	 * @param name The not <code>null</code> nor empty name of the filter (case insensitive)
+	 * @param builder The not <code>null</code> builder of the filter
+	 */
+	public static void register(String name, FilterBuilder builder) {
+		Objects.requireNonNull(name,"The name of the filter can't be null");
+		Objects.requireNonNull(builder,"The builder of the filter can't be null");
+		if (name.trim().isEmpty()) {
+			throw new IllegalArgumentException("The name of the filter can't be empty");
+		}
+		if (builders.put(name.trim().toLowerCase(), builder)!=null) {
+			logger.warn("The builder of filter {} has been replaced",name);
+		}
+	}
+
+	/**
+	 * Build a new filter.
+	 *
+	 * @param name The name of the filter: a {@link NoneFilter} is built
+	 *             if the name is <code>null</code> or empty
+	 * @param options The comma separated list of <code>name=value</code> options of the filter;
+	 *                it can be <code>null</code> or empty
+	 * @return the new filter
+	 * @throws FilterException if the filter is unknown or the options are not valid
+	 */
+	public static Filter getFilter(String name, String options) throws FilterException {
+		if (name==null || name.trim().isEmpty()) {
+			return builders.get(NONE.toLowerCase()).build(FilterOptions.parse(options));
+		}
+		FilterBuilder builder = builders.get(name.trim().toLowerCase());
+		if (builder==null) {
+			throw new FilterException("Unknown filter "+name);
+		}
+		return builder.build(FilterOptions.parse(options));
+	}
+}
@@ -0,0 +1,183 @@
+package org.eso.ias.plugin.filter;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The options of a filter read from the configuration
+ * ({@link org.eso.ias.plugin.config.Value#getFilterOptions()}).
+ * <P>
+ * The options are a comma separated list of <code>name=value</code>
+ * pairs like, for example, <code>samples=10,alpha=0.2</code>.
+ * Spaces around names and values are ignored.
+ * <P>
+ * <code>FilterOptions</code> is immutable.
+ *
+ * @author acaproni
+ *
+ */
+public class FilterOptions {
+
+	/**
+	 * The options without any item
+	 */
+	public static final FilterOptions emptyOptions = new FilterOptions(Collections.emptyMap());
+
+	/**
+	 * The options: the key is the name of the option
+	 */
+	private final Map<String, String> options;
+
+	/**
+	 * Constructor
+	 *
+	 * @param options The options: the key is the name of the option
+	 */
+	private FilterOptions(Map<String, String> options) {
+		this.options=Collections.unmodifiableMap(options);
+	}
+
+	/**
+	 * Parse the passed string of options.
+	 *
+	 * @param optionsStr The comma separated list of <code>name=value</code> options;
+	 *                   <code>null</code> or empty if there are no options
+	 * @return the options read from the passed string
+	 * @throws FilterException if the string is malformed
+	 */
+	public static FilterOptions parse(String optionsStr) throws FilterException {
+		if (optionsStr==null || optionsStr.trim().isEmpty()) {
+			return emptyOptions;
+		}
+		Map<String, String> options = new HashMap<>();
+		for (String option: optionsStr.split(",")) {
+			int pos = option.indexOf('=');
+			if (pos<=0) {
+				throw new FilterException("Malformed filter option "+option+" in "+optionsStr+": name=value expected");
+			}
+			String name = option.substring(0, pos).trim();
+			String value = option.substring(pos+1).trim();
+			if (name.isEmpty() || value.isEmpty()) {
+				throw new FilterException("Malformed filter option "+option+" in "+optionsStr+": name=value expected");
+			}
+			if (options.put(name, value)!=null) {
+				throw new FilterException("Filter option "+name+" defined more then once in "+optionsStr);
+			}
+		}
+		return new FilterOptions(options);
+	}
+
+	/**
+	 * @return the names of the options
+	 */
+	public Set<String> getNames() {
+		return options.keySet();
+	}
+
+	/**
+	 * @param name The name of the option
+	 * @return <code>true</code> if the option with the passed name is defined
+	 */
+	public boolean has(String name) {
+		return options.containsKey(name);
+	}
+
+	/**
+	 * Check that all the options are allowed by the filter
+	 *
+	 * @param allowedNames The names of the options allowed by the filter
+	 * @throws FilterException if a option is not allowed by the filter
+	 */
+	public void checkNames(String... allowedNames) throws FilterException {
+		for (String name: options.keySet()) {
+			boolean found=false;
+			for (String allowedName: allowedNames) {
+				found = found || allowedName.equals(name);
+			}
+			if (!found) {
+				throw new FilterException("Unknown filter option "+name);
+			}
+		}
+	}
+
+	/**
+	 * Get the value of the option with the passed name
+	 *
+	 * @param name The name of the option
+	 * @param defaultValue The value to return if the option is not defined
+	 * @return the value of the option or the default if the option is not defined
+	 */
+	public String getString(String name, String defaultValue) {
+		return options.getOrDefault(name, defaultValue);
+	}
+
+	/**
+	 * Get the value of the option with the passed name as an integer
+	 *
+	 * @param name The name of the option
+	 * @param defaultValue The value to return if the option is not defined
+	 * @return the value of the option or the default if the option is not defined
+	 * @throws FilterException if the value of the option is not an integer
+	 */
+	public int getInt(String name, int defaultValue) throws FilterException {
+		String value = options.get(name);
+		if (value==null) {
+			return defaultValue;
+		}
+		try {
+			return Integer.parseInt(value);
+		} catch (NumberFormatException nfe) {
+			throw new FilterException("Invalid integer value "+value+" of filter option "+name, nfe);
+		}
+	}
+
+	/**
+	 * Get the value of the option with the passed name as a long
+	 *
+	 * @param name The name of the option
+	 * @param defaultValue The value to return if the option is not defined
+	 * @return the value of the option or the default if the option is not defined
+	 * @throws FilterException if the value of the option is not a long
+	 */
+	public long getLong(String name, long defaultValue) throws FilterException {
+		String value = options.get(name);
+		if (value==null) {
+			return defaultValue;
+		}
+		try {
+			return Long.parseLong(value);
+		} catch (NumberFormatException nfe) {
+			throw new FilterException("Invalid long value "+value+" of filter option "+name, nfe);
+		}
+	}
+
+	/**
+	 * Get the value of the option with the passed name as a double
+	 *
+	 * @param name The name of the option
+	 * @param defaultValue The value to return if the option is not defined
+	 * @return the value of the option or the default if the option is not defined
+	 * @throws FilterException if the value of the option is not a double
+	 */
+	public double getDouble(String name, double defaultValue) throws FilterException {
+		String value = options.get(name);
+		if (value==null) {
+			return defaultValue;
+		}
+		try {
+			return Double.parseDouble(value);
+		} catch (NumberFormatException nfe) {
+			throw new FilterException("Invalid double value "+value+" of filter option "+name, nfe);
+		}
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "FilterOptions"+options.toString();
+	}
+}
@@ -6,64 +6,346 @@ import java.util.Date;
 import java.util.List;
 import java.util.Objects;
 
+import org.eso.ias.plugin.DoubleSample;
+import org.eso.ias.plugin.LongSample;
 import org.eso.ias.plugin.Sample;
 
 /**
  * The value returned after applying the filter.
- * 
+ * <P>
+ * Numeric values produced by the filters can be stored in a java primitive
+ * ({@link #getPrimitiveType()}) instead of boxing them in {@link #value}
+ * that in that case is <code>null</code>:
+ * the value must be read with {@link #getValue()}, {@link #getDoubleValue()} or
+ * {@link #getLongValue()}.
+ * <P>
+ * A compact <code>FilteredValue</code> does not retain the samples used by the filter
+ * ({@link #samples} is empty) but only their number ({@link #numOfSamples}):
+ * the values to send to the core of the IAS ({@link org.eso.ias.plugin.ValueToSend})
+ * are compact because they are kept in memory by the monitor points and the publishers
+ * and must not keep alive the windows of samples of the filters.
+ *
  * <P><code>FilteredValue</code> is immutable.
- * 
+ *
  * @author acaproni
  */
 public class FilteredValue {
-	
+
+	/**
+	 * The type of the java primitive holding the value
+	 *
+	 * @author acaproni
+	 */
+	public enum PrimitiveType {
+		/**
+		 * The value is not a primitive: it is stored in {@link FilteredValue#value}
+		 */
+		NONE,
+
+		/**
+		 * The value is a <code>double</code>
+		 */
+		DOUBLE,
+
+		/**
+		 * The value is a <code>long</code>
+		 */
+		LONG
+	}
+
 	/**
 	 * The samples used by the filter to generate the filtered value.
 	 * <P>
 	 * The number of samples in the collection varies
 	 * depending on the filter. For example a filter that
-	 * does nothing only has one sample but the value generated averaging 
+	 * does nothing only has one sample but the value generated averaging
 	 * many sample sample contains that many sample.
+	 * <P>
+	 * It is empty if the filtered value is compact.
+	 *
+	 * @see #numOfSamples
 	 */
 	public final List<Sample> samples;
-	
+
 	/**
-	 * The value obtained applying the filter to the samples
+	 * The number of samples used by the filter to generate the filtered value,
+	 * even if the samples are not retained by a compact filtered value
 	 */
+	public final int numOfSamples;
+
+	/**
+	 * The value obtained applying the filter to the samples.
+	 * <P>
+	 * It is <code>null</code> if the value is stored in a java primitive
+	 *
+	 * @see #getValue()
+	 * @deprecated <code>null</code> if the value is stored in a java primitive 
+	 *             ({@link #getPrimitiveType()}): use {@link #getValue()}, 
+	 *             {@link #getDoubleValue()} or {@link #getLongValue()}
+	 */
+	@Deprecated
 	public final Object value;
-	
+
+	/**
+	 * The type of the primitive holding the value, if any
+	 */
+	private final PrimitiveType primitiveType;
+
+	/**
+	 * The value if {@link #primitiveType} is {@link PrimitiveType#DOUBLE}
+	 */
+	private final double doubleValue;
+
+	/**
+	 * The value if {@link #primitiveType} is {@link PrimitiveType#LONG}
+	 */
+	private final long longValue;
+
 	/**
 	 * The point in time when the value has been generated
 	 */
 	public final long filteredTimestamp;
-	
+
 	/**
 	 * The point in time when the value has been provided by the remote system
 	 */
 	public final long producedTimestamp;
-	
+
 	/**
-	 * Constructor 
-	 * 
+	 * Constructor
+	 *
 	 * @param value The value to send to the IAS core
 	 * @param samples The history of samples used by the filter to produce the value
 	 * @param monitoredSystemTimestamp The timestamp when the value has been provided by the monitored system
 	 */
 	public FilteredValue(Object value, List<Sample> samples, long monitoredSystemTimestamp) {
+		this(value,PrimitiveType.NONE,0D,0L,checkSamples(samples),samples.size(),monitoredSystemTimestamp);
 		Objects.requireNonNull(value,"The filtered value can't be null");
+	}
+
+	/**
+	 * Constructor for a <code>double</code> value
+	 *
+	 * @param value The value to send to the IAS core
+	 * @param samples The history of samples used by the filter to produce the value
+	 * @param monitoredSystemTimestamp The timestamp when the value has been provided by the monitored system
+	 */
+	public FilteredValue(double value, List<Sample> samples, long monitoredSystemTimestamp) {
+		this(null,PrimitiveType.DOUBLE,value,0L,checkSamples(samples),samples.size(),monitoredSystemTimestamp);
+	}
+
+	/**
+	 * Constructor for a <code>long</code> value
+	 *
+	 * @param value The value to send to the IAS core
+	 * @param samples The history of samples used by the filter to produce the value
+	 * @param monitoredSystemTimestamp The timestamp when the value has been provided by the monitored system
+	 */
+	public FilteredValue(long value, List<Sample> samples, long monitoredSystemTimestamp) {
+		this(null,PrimitiveType.LONG,0D,value,checkSamples(samples),samples.size(),monitoredSystemTimestamp);
+	}
+
+	/**
+	 * Builds a filtered value with the value and the timestamp of the passed sample.
+	 * <P>
+	 * The value is not boxed if the sample is a {@link DoubleSample} or a {@link LongSample}
+	 *
+	 * @param sample The not <code>null</code> sample with the value
+	 * @param samples The history of samples used by the filter to produce the value
+	 */
+	public FilteredValue(Sample sample, List<Sample> samples) {
+		this(
+				objectValueOf(sample),
+				primitiveTypeOf(sample),
+				(sample instanceof DoubleSample)?((DoubleSample)sample).doubleValue:0D,
+				(sample instanceof LongSample)?((LongSample)sample).longValue:0L,
+				checkSamples(samples),
+				samples.size(),
+				sample.timestamp);
+	}
+
+	/**
+	 * Builds a compact filtered value with the value and the timestamp of the passed sample
+	 * produced without filtering.
+	 *
+	 * @param sample The not <code>null</code> sample with the value
+	 */
+	protected FilteredValue(Sample sample) {
+		this(
+				objectValueOf(sample),
+				primitiveTypeOf(sample),
+				(sample instanceof DoubleSample)?((DoubleSample)sample).doubleValue:0D,
+				(sample instanceof LongSample)?((LongSample)sample).longValue:0L,
+				Collections.emptyList(),
+				1,
+				sample.timestamp);
+	}
+
+	/**
+	 * Builds a new compact filtered value with the same value, number of samples and
+	 * production timestamp of the passed filtered value.
+	 *
+	 * @param filteredValue The not <code>null</code> filtered value to copy
+	 */
+	protected FilteredValue(FilteredValue filteredValue) {
+		this(
+				filteredValue.value,
+				filteredValue.primitiveType,
+				filteredValue.doubleValue,
+				filteredValue.longValue,
+				Collections.emptyList(),
+				filteredValue.numOfSamples,
+				filteredValue.producedTimestamp);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param value The value, <code>null</code> if it is a primitive
+	 * @param primitiveType The type of the primitive holding the value
+	 * @param doubleValue The value if it is a <code>double</code>
+	 * @param longValue The value if it is a <code>long</code>
+	 * @param samples The history of samples used by the filter to produce the value
+	 *                (empty if the filtered value is compact)
+	 * @param numOfSamples The number of samples used by the filter to produce the value
+	 * @param monitoredSystemTimestamp The timestamp when the value has been provided by the monitored system
+	 */
+	private FilteredValue(
+			Object value,
+			PrimitiveType primitiveType,
+			double doubleValue,
+			long longValue,
+			List<Sample> samples,
+			int numOfSamples,
+			long monitoredSystemTimestamp) {
+		this.value=value;
+		this.primitiveType=primitiveType;
+		this.doubleValue=doubleValue;
+		this.longValue=longValue;
+		this.filteredTimestamp=System.currentTimeMillis();
+		this.samples=samples.isEmpty()?Collections.emptyList():Collections.unmodifiableList(samples);
+		this.numOfSamples=numOfSamples;
+		this.producedTimestamp=monitoredSystemTimestamp;
+	}
+
+	/**
+	 * @param sample The not <code>null</code> sample
+	 * @return the type of the primitive holding the value of the sample
+	 */
+	private static PrimitiveType primitiveTypeOf(Sample sample) {
+		if (sample instanceof DoubleSample) {
+			return PrimitiveType.DOUBLE;
+		} else if (sample instanceof LongSample) {
+			return PrimitiveType.LONG;
+		} else {
+			return PrimitiveType.NONE;
+		}
+	}
+
+	/**
+	 * @param sample The not <code>null</code> sample
+	 * @return the value of the sample, or <code>null</code> if it is
+	 *         stored in a java primitive (so that it is not boxed)
+	 */
+	private static Object objectValueOf(Sample sample) {
+		return primitiveTypeOf(sample)==PrimitiveType.NONE ? sample.getValue() : null;
+	}
+
+	/**
+	 * Check that the passed collection of samples is not <code>null</code> nor empty
+	 *
+	 * @param samples The samples to check
+	 * @return the passed samples
+	 */
+	private static List<Sample> checkSamples(List<Sample> samples) {
 		Objects.requireNonNull(samples,"The collection of samples can't be null");
-		
+
 		if (samples.isEmpty()) {
 			throw new IllegalArgumentException("The collection of samples can't be empty");
 		}
-		this.value=value;
-		this.filteredTimestamp=System.currentTimeMillis();
-		this.samples=Collections.unmodifiableList(samples);
-		this.producedTimestamp=monitoredSystemTimestamp;
+		return samples;
+	}
+
+	/**
+	 * Return the value obtained applying the filter.
+	 * <P>
+	 * Values stored in a java primitive are returned boxed in a new object.
+	 *
+	 * @return the not <code>null</code> value
+	 */
+	public Object getValue() {
+		switch (primitiveType) {
+		case DOUBLE: return Double.valueOf(doubleValue);
+		case LONG: return Long.valueOf(longValue);
+		default: return value;
+		}
+	}
+
+	/**
+	 * @return <code>true</code> if the filtered value does not retain the samples
+	 */
+	public boolean isCompact() {
+		return samples.isEmpty();
 	}
-	
+
+	/**
+	 * @return the type of the primitive holding the value
+	 */
+	public PrimitiveType getPrimitiveType() {
+		return primitiveType;
+	}
+
+	/**
+	 * Return the value as a <code>double</code> without boxing
+	 * if it is stored in a java primitive.
+	 *
+	 * @return the value as a double
+	 * @throws IllegalStateException if the value is not numeric
+	 */
+	public double getDoubleValue() {
+		switch (primitiveType) {
+		case DOUBLE: return doubleValue;
+		case LONG: return longValue;
+		default:
+			if (value instanceof Number) {
+				return ((Number)value).doubleValue();
+			}
+			throw new IllegalStateException("The value "+value+" is not numeric");
+		}
+	}
+
+	/**
+	 * Return the value as a <code>long</code> without boxing
+	 * if it is stored in a java primitive.
+	 *
+	 * @return the value as a long
+	 * @throws IllegalStateException if the value is not numeric
+	 */
+	public long getLongValue() {
+		switch (primitiveType) {
+		case DOUBLE: return (long)doubleValue;
+		case LONG: return longValue;
+		default:
+			if (value instanceof Number) {
+				return ((Number)value).longValue();
+			}
+			throw new IllegalStateException("The value "+value+" is not numeric");
+		}
+	}
+
+	/**
+	 * @return the string representation of the value
+	 */
+	public String valueToString() {
+		switch (primitiveType) {
+		case DOUBLE: return Double.toString(doubleValue);
+		case LONG: return Long.toString(longValue);
+		default: return value.toString();
+		}
+	}
+
 	/**
-	 * 
+	 *
 	 * @see java.lang.Object#toString()
 	 */
 	@Override
@@ -73,7 +355,7 @@ public class FilteredValue {
 		Date date = new Date(filteredTimestamp);
 		ret.append(df.format(date));
 		ret.append(", value=");
-		ret.append(value.toString());
+		ret.append(valueToString());
 		ret.append(')');
 		return ret.toString();
 	}
@@ -0,0 +1,81 @@
+package org.eso.ias.plugin.filter;
+
+/**
+ * A filter that returns the mean of the values of the samples
+ * in the window.
+ * <P>
+ * The mean is calculated in O(1) per sample by keeping the running sum
+ * of the values in the window: the value of the sample that leaves the window
+ * is subtracted from the sum.
+ * To avoid the accumulation of rounding errors, the sum is recalculated 
+ * from the values in the window after as many samples as those in the window.
+ * 
+ * @author acaproni
+ *
+ */
+public class MeanFilter extends WindowFilterBase {
+	
+	/**
+	 * The sum of the values in the window
+	 */
+	private double sum=0;
+	
+	/**
+	 * The number of samples added since the last
+	 * time the {@link #sum} has been recalculated
+	 */
+	private int samplesSinceRecalc=0;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param windowSize The number of samples to average
+	 */
+	public MeanFilter(int windowSize) {
+		this(windowSize,0);
+	}
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param windowSize The max number of samples to average: 
+	 *                   if not positive, the window is limited only by time
+	 * @param windowTime The time interval (msec) of the samples to average: 
+	 *                   if not positive, the window is limited only by the number of samples
+	 */
+	public MeanFilter(int windowSize, long windowTime) {
+		super(windowSize,windowTime);
+	}
+
+	/**
+	 * @see WindowFilterBase#windowSampleAdded(double, long)
+	 */
+	@Override
+	protected void windowSampleAdded(double value, long timestamp) {
+		if (++samplesSinceRecalc>=window.size()) {
+			samplesSinceRecalc=0;
+			sum=0;
+			for (int t=0; t<window.size(); t++) {
+				sum+=window.getValue(t);
+			}
+		} else {
+			sum+=value;
+		}
+	}
+
+	/**
+	 * @see WindowFilterBase#windowSampleRemoved(double, long)
+	 */
+	@Override
+	protected void windowSampleRemoved(double value, long timestamp) {
+		sum-=value;
+	}
+
+	/**
+	 * @see NumericFilterBase#getFilteredValue()
+	 */
+	@Override
+	protected double getFilteredValue() {
+		return sum/window.size();
+	}
+}
@@ -0,0 +1,40 @@
+package org.eso.ias.plugin.filter;
+
+/**
+ * A filter that returns the minimum of the values 
+ * of the samples in the window.
+ * 
+ * @author acaproni
+ *
+ */
+public class MinFilter extends ExtremeFilterBase {
+
+	/**
+	 * Constructor
+	 * 
+	 * @param windowSize The number of samples in the window
+	 */
+	public MinFilter(int windowSize) {
+		super(windowSize,0);
+	}
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param windowSize The max number of samples in the window: 
+	 *                   if not positive, the window is limited only by time
+	 * @param windowTime The time interval (msec) of the window: 
+	 *                   if not positive, the window is limited only by the number of samples
+	 */
+	public MinFilter(int windowSize, long windowTime) {
+		super(windowSize,windowTime);
+	}
+
+	/**
+	 * @see ExtremeFilterBase#isExtreme(double, double)
+	 */
+	@Override
+	protected boolean isExtreme(double v1, double v2) {
+		return v1<=v2;
+	}
+}
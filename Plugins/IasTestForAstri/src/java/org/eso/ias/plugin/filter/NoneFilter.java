@@ -27,7 +27,7 @@ public class NoneFilter extends FilterBase {
 	@Override
 	public Optional<FilteredValue> applyFilter() {
 		Optional<Sample> sample=peekNewest();
-		return sample.map(s -> new FilteredValue(s.value, historySnapshot(),s.timestamp));
+		return sample.map(s -> new FilteredValue(s, historySnapshot()));
 	}
 	
 
@@ -0,0 +1,115 @@
+package org.eso.ias.plugin.filter;
+
+import java.util.Optional;
+
+import org.eso.ias.plugin.DoubleSample;
+import org.eso.ias.plugin.LongSample;
+import org.eso.ias.plugin.Sample;
+
+/**
+ * The base class for the filters of numeric samples that update
+ * the filtered value incrementally in O(1) when a new sample arrives.
+ * <P>
+ * The values of the samples are read as <code>double</code>
+ * without boxing if the samples are {@link DoubleSample} or {@link LongSample}
+ * and the filtered value is a <code>double</code>.
+ * <BR>The filters keep the state they need (for example a window of values in a
+ * {@link NumericSampleHistory}) while the history of {@link FilterBase} contains only
+ * the newest sample: the samples of the {@link FilteredValue} produced by
+ * these filters are then only the newest sample.
+ * <P>
+ * The filtered value is calculated when a new sample arrives and returned by {@link #apply()}.
+ * A filter can decide that the filtered value must not be sent to the core
+ * of the IAS by overriding {@link #mustSend(double)}: the monitor point will then resend
+ * the last sent value when the refresh rate elapses.
+ *
+ * @author acaproni
+ *
+ */
+public abstract class NumericFilterBase extends FilterBase {
+
+	/**
+	 * The value to send to the core of the IAS, calculated
+	 * when the last sample has been added.
+	 * <P>
+	 * It is empty if no sample has been received yet or
+	 * the filter decided not to send the value.
+	 */
+	private volatile Optional<FilteredValue> valueToSend = Optional.empty();
+
+	/**
+	 * Constructor
+	 */
+	public NumericFilterBase() {
+		super(1);
+	}
+
+	/**
+	 * Return the value of the passed sample as a double
+	 *
+	 * @param sample The not <code>null</code> sample
+	 * @return the value of the sample as a double
+	 * @throws FilterException if the value of the sample is not numeric
+	 */
+	public static double doubleValueOf(Sample sample) throws FilterException {
+		if (sample instanceof DoubleSample) {
+			return ((DoubleSample)sample).doubleValue;
+		} else if (sample instanceof LongSample) {
+			return ((LongSample)sample).longValue;
+		} else if (sample.getValue() instanceof Number) {
+			return ((Number)sample.getValue()).doubleValue();
+		} else {
+			throw new FilterException("The value "+sample.valueToString()+" of the sample is not numeric");
+		}
+	}
+
+	/**
+	 * Update the state of the filter with the new value.
+	 *
+	 * @param value The value of the new sample
+	 * @param timestamp The timestamp of the new sample
+	 */
+	protected abstract void sampleAdded(double value, long timestamp);
+
+	/**
+	 * @return the filtered value calculated after the last sample has been added
+	 */
+	protected abstract double getFilteredValue();
+
+	/**
+	 * Tell if the passed filtered value must be sent to the core of the IAS.
+	 * <P>
+	 * The default implementation always returns <code>true</code>.
+	 *
+	 * @param filteredValue The filtered value calculated after adding the last sample
+	 * @return <code>true</code> if the passed filtered value must be sent
+	 */
+	protected boolean mustSend(double filteredValue) {
+		return true;
+	}
+
+	/**
+	 * Update the state of the filter and calculate the value to send.
+	 *
+	 * @see FilterBase#sampleAdded(Sample)
+	 */
+	@Override
+	protected final void sampleAdded(Sample newSample) throws FilterException {
+		sampleAdded(doubleValueOf(newSample), newSample.timestamp);
+		double filteredValue = getFilteredValue();
+		if (mustSend(filteredValue)) {
+			valueToSend = Optional.of(new FilteredValue(filteredValue, historySnapshot(), newSample.timestamp));
+		} else {
+			valueToSend = Optional.empty();
+		}
+	}
+
+	/**
+	 * @return the value calculated when the last sample has been added
+	 * @see FilterBase#applyFilter()
+	 */
+	@Override
+	protected final Optional<FilteredValue> applyFilter() {
+		return valueToSend;
+	}
+}
@@ -0,0 +1,270 @@
+package org.eso.ias.plugin.filter;
+
+/**
+ * The history of numeric samples implemented as a circular buffer
+ * of java primitives.
+ * <P>
+ * <code>NumericSampleHistory</code> is the numeric variant of {@link SampleHistory}:
+ * it stores the values and the timestamps of the samples in arrays
+ * of <code>double</code> and <code>long</code> so that the filters can
+ * keep long windows of samples without boxing and without
+ * allocating an object per sample.
+ * <P>
+ * The samples are time ordered: the newest sample has index 0
+ * and the oldest has index <code>size()-1</code>.
+ * <BR>The buffer grows when needed up to {@link #maxSize} samples:
+ * when the buffer is full, adding a new sample evicts the oldest one.
+ * <P>
+ * <code>NumericSampleHistory</code> is not thread safe.
+ *
+ * @author acaproni
+ *
+ */
+public class NumericSampleHistory {
+
+	/**
+	 * The initial size of the buffers
+	 */
+	private static final int initialCapacity = 16;
+
+	/**
+	 * The max number of samples in the history
+	 */
+	public final int maxSize;
+
+	/**
+	 * The circular buffer of the values of the samples
+	 */
+	private double[] values;
+
+	/**
+	 * The circular buffer of the timestamps of the samples
+	 */
+	private long[] timestamps;
+
+	/**
+	 * The position of the newest sample in the buffers
+	 */
+	private int head=0;
+
+	/**
+	 * The number of samples in the history
+	 */
+	private int size=0;
+
+	/**
+	 * Constructor
+	 *
+	 * @param maxSize The max number of samples in the history
+	 */
+	public NumericSampleHistory(int maxSize) {
+		if (maxSize<=0) {
+			throw new IllegalArgumentException("Invalid max size of the history: "+maxSize);
+		}
+		this.maxSize=maxSize;
+		int capacity = Math.min(initialCapacity, maxSize);
+		values = new double[capacity];
+		timestamps = new long[capacity];
+	}
+
+	/**
+	 * Constructor of a history whose size is limited only by the memory
+	 */
+	public NumericSampleHistory() {
+		this(Integer.MAX_VALUE);
+	}
+
+	/**
+	 * @return the number of samples in the history
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return <code>true</code> if the history is empty
+	 */
+	public boolean isEmpty() {
+		return size==0;
+	}
+
+	/**
+	 * Return the position in the buffers of the
+	 * sample with the passed index
+	 *
+	 * @param index The index of the sample (0 is the newest)
+	 * @return the position of the sample in the buffers
+	 */
+	private int position(int index) {
+		int pos = head+index;
+		return pos>=values.length ? pos-values.length : pos;
+	}
+
+	/**
+	 * Check that the index is in the range of the history
+	 *
+	 * @param index The index of the sample
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	private void checkIndex(int index) {
+		if (index<0 || index>=size) {
+			throw new IndexOutOfBoundsException("Index "+index+" out of range [0,"+size+"[");
+		}
+	}
+
+	/**
+	 * Add a sample that becomes the newest in the history.
+	 * <P>
+	 * The oldest sample is removed if the history already
+	 * contains {@link #maxSize} samples.
+	 *
+	 * @param value The value of the sample
+	 * @param timestamp The timestamp of the sample
+	 * @return The number of samples removed from the history (0 or 1)
+	 */
+	public int addNewest(double value, long timestamp) {
+		int removed=0;
+		if (size==values.length) {
+			if (values.length<maxSize) {
+				grow();
+			} else {
+				removed=removeOldest(1);
+			}
+		}
+		head = head==0 ? values.length-1 : head-1;
+		values[head]=value;
+		timestamps[head]=timestamp;
+		size++;
+		return removed;
+	}
+
+	/**
+	 * Double the size of the buffers (without exceeding {@link #maxSize})
+	 * moving the samples at the beginning of the new buffers
+	 */
+	private void grow() {
+		int newCapacity = (int)Math.min((long)values.length*2, maxSize);
+		double[] newValues = new double[newCapacity];
+		long[] newTimestamps = new long[newCapacity];
+		for (int t=0; t<size; t++) {
+			int pos = position(t);
+			newValues[t]=values[pos];
+			newTimestamps[t]=timestamps[pos];
+		}
+		values=newValues;
+		timestamps=newTimestamps;
+		head=0;
+	}
+
+	/**
+	 * Get the value of a sample of the history
+	 *
+	 * @param index The index of the sample: 0 is the newest sample
+	 * @return the value of the sample with the given index
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	public double getValue(int index) {
+		checkIndex(index);
+		return values[position(index)];
+	}
+
+	/**
+	 * Get the timestamp of a sample of the history
+	 *
+	 * @param index The index of the sample: 0 is the newest sample
+	 * @return the timestamp of the sample with the given index
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	public long getTimestamp(int index) {
+		checkIndex(index);
+		return timestamps[position(index)];
+	}
+
+	/**
+	 * @return the value of the newest sample
+	 * @throws IndexOutOfBoundsException if the history is empty
+	 */
+	public double getNewestValue() {
+		return getValue(0);
+	}
+
+	/**
+	 * @return the value of the oldest sample
+	 * @throws IndexOutOfBoundsException if the history is empty
+	 */
+	public double getOldestValue() {
+		return getValue(size-1);
+	}
+
+	/**
+	 * @return the timestamp of the oldest sample
+	 * @throws IndexOutOfBoundsException if the history is empty
+	 */
+	public long getOldestTimestamp() {
+		return getTimestamp(size-1);
+	}
+
+	/**
+	 * Remove the oldest samples from the history
+	 *
+	 * @param nSamples The number of samples to remove
+	 * @return The number of removed samples
+	 */
+	public int removeOldest(int nSamples) {
+		int toRemove = Math.min(Math.max(nSamples, 0), size);
+		size-=toRemove;
+		return toRemove;
+	}
+
+	/**
+	 * Remove the newest samples from the history
+	 *
+	 * @param nSamples The number of samples to remove
+	 * @return The number of removed samples
+	 */
+	public int removeNewest(int nSamples) {
+		int toRemove = Math.min(Math.max(nSamples, 0), size);
+		head = position(toRemove);
+		size-=toRemove;
+		return toRemove;
+	}
+
+	/**
+	 * Remove the oldest samples until the history
+	 * contains only nSamples samples.
+	 *
+	 * @param nSamples The number of samples to keep in the history
+	 * @return The number of removed samples
+	 */
+	public int keepNewest(int nSamples) {
+		return removeOldest(size-nSamples);
+	}
+
+	/**
+	 * Remove from the history the samples whose timestamp
+	 * is older or equal to the passed one.
+	 * <P>
+	 * The samples are removed from the oldest so only the removed
+	 * samples are checked.
+	 *
+	 * @param timestamp The timestamp to remove samples
+	 * @return The number of removed samples
+	 */
+	public int removeOlderThan(long timestamp) {
+		int removed=0;
+		while (size>0 && timestamps[position(size-1)]<=timestamp) {
+			size--;
+			removed++;
+		}
+		return removed;
+	}
+
+	/**
+	 * Clear the history.
+	 *
+	 * @return The number of samples removed from the history
+	 */
+	public int clear() {
+		return removeOldest(size);
+	}
+}
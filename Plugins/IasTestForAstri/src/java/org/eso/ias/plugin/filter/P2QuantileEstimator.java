@@ -0,0 +1,186 @@
+package org.eso.ias.plugin.filter;
+
+import java.util.Arrays;
+
+/**
+ * The P<sup>2</sup> estimator of a quantile of a stream of values 
+ * (R. Jain and I. Chlamtac, <em>The P<sup>2</sup> algorithm for dynamic calculation 
+ * of quantiles and histograms without storing observations</em>, 
+ * Communications of the ACM, 1985).
+ * <P>
+ * The estimator keeps only 5 markers whose heights are adjusted
+ * with a piecewise-parabolic formula when a new value arrives: 
+ * the memory and the cost per value are constant.
+ * The estimation is exact until 5 values have been added.
+ * <P>
+ * <code>P2QuantileEstimator</code> is not thread safe.
+ * 
+ * @author acaproni
+ *
+ */
+public class P2QuantileEstimator {
+	
+	/**
+	 * The quantile to estimate in [0,1]
+	 */
+	public final double quantile;
+	
+	/**
+	 * The heights of the markers
+	 */
+	private final double[] heights = new double[5];
+	
+	/**
+	 * The actual positions of the markers
+	 */
+	private final double[] positions = new double[5];
+	
+	/**
+	 * The desired positions of the markers
+	 */
+	private final double[] desiredPositions = new double[5];
+	
+	/**
+	 * The increments of the desired positions for each new value
+	 */
+	private final double[] increments = new double[5];
+	
+	/**
+	 * The number of values added to the estimator
+	 */
+	private long count=0;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param quantile The quantile to estimate in [0,1] (0.5 for the median)
+	 */
+	public P2QuantileEstimator(double quantile) {
+		if (!(quantile>=0 && quantile<=1)) {
+			throw new IllegalArgumentException("The quantile must be in [0,1]: "+quantile);
+		}
+		this.quantile=quantile;
+		increments[0]=0;
+		increments[1]=quantile/2;
+		increments[2]=quantile;
+		increments[3]=(1+quantile)/2;
+		increments[4]=1;
+	}
+	
+	/**
+	 * Restart the estimation discarding all the values added so far
+	 */
+	public void reset() {
+		count=0;
+	}
+	
+	/**
+	 * @return the number of values added to the estimator
+	 */
+	public long getCount() {
+		return count;
+	}
+	
+	/**
+	 * Add a value to the estimator
+	 * 
+	 * @param value The value to add
+	 */
+	public void add(double value) {
+		if (count<5) {
+			heights[(int)count++]=value;
+			if (count==5) {
+				Arrays.sort(heights);
+				for (int i=0; i<5; i++) {
+					positions[i]=i+1;
+				}
+				desiredPositions[0]=1;
+				desiredPositions[1]=1+2*quantile;
+				desiredPositions[2]=1+4*quantile;
+				desiredPositions[3]=3+2*quantile;
+				desiredPositions[4]=5;
+			}
+			return;
+		}
+		count++;
+		
+		// Find the cell of the value, adjusting the extreme markers
+		int cell;
+		if (value<heights[0]) {
+			heights[0]=value;
+			cell=0;
+		} else if (value>=heights[4]) {
+			heights[4]=value;
+			cell=3;
+		} else {
+			cell=0;
+			while (value>=heights[cell+1]) {
+				cell++;
+			}
+		}
+		for (int i=cell+1; i<5; i++) {
+			positions[i]++;
+		}
+		for (int i=0; i<5; i++) {
+			desiredPositions[i]+=increments[i];
+		}
+		
+		// Adjust the heights of the middle markers
+		for (int i=1; i<4; i++) {
+			double d = desiredPositions[i]-positions[i];
+			if ((d>=1 && positions[i+1]-positions[i]>1) || (d<=-1 && positions[i-1]-positions[i]<-1)) {
+				int sign = d>0 ? 1 : -1;
+				double height = parabolic(i, sign);
+				if (heights[i-1]<height && height<heights[i+1]) {
+					heights[i]=height;
+				} else {
+					heights[i]=linear(i, sign);
+				}
+				positions[i]+=sign;
+			}
+		}
+	}
+	
+	/**
+	 * The piecewise-parabolic prediction of the height of a marker
+	 * 
+	 * @param i The index of the marker
+	 * @param d The direction of the movement of the marker (+1 or -1)
+	 * @return the new height of the marker
+	 */
+	private double parabolic(int i, int d) {
+		return heights[i] + d/(positions[i+1]-positions[i-1]) * (
+				(positions[i]-positions[i-1]+d)*(heights[i+1]-heights[i])/(positions[i+1]-positions[i]) +
+				(positions[i+1]-positions[i]-d)*(heights[i]-heights[i-1])/(positions[i]-positions[i-1]));
+	}
+	
+	/**
+	 * The linear prediction of the height of a marker
+	 * 
+	 * @param i The index of the marker
+	 * @param d The direction of the movement of the marker (+1 or -1)
+	 * @return the new height of the marker
+	 */
+	private double linear(int i, int d) {
+		return heights[i] + d*(heights[i+d]-heights[i])/(positions[i+d]-positions[i]);
+	}
+	
+	/**
+	 * Return the estimation of the quantile of the values added so far.
+	 * 
+	 * @return the estimation of the quantile
+	 * @throws IllegalStateException if no value has been added
+	 */
+	public double getQuantile() {
+		if (count==0) {
+			throw new IllegalStateException("No values added to the estimator");
+		}
+		if (count<5) {
+			// Exact quantile of the few values
+			double[] values = Arrays.copyOf(heights, (int)count);
+			Arrays.sort(values);
+			return values[(int)Math.round((count-1)*quantile)];
+		}
+		return heights[2];
+	}
+}
@@ -0,0 +1,145 @@
+package org.eso.ias.plugin.filter;
+
+/**
+ * A filter that returns a quantile (for example the median) of the values 
+ * of the samples in a window, estimated with the {@link P2QuantileEstimator}.
+ * <P>
+ * The memory and the cost per sample do not depend on the length of the window
+ * because the samples are not stored.
+ * As the P<sup>2</sup> estimator does not support the removal of values,
+ * the window slides by hops: two estimators are started half a window apart
+ * and each one restarts when it covers the whole window. 
+ * The filtered value is the estimation of the older estimator 
+ * that covers between half and the whole window 
+ * (at most {@link #windowSize} samples and/or the samples of the 
+ * last {@link #windowTime} msecs).
+ * 
+ * @author acaproni
+ *
+ */
+public class QuantileFilter extends NumericFilterBase {
+	
+	/**
+	 * The quantile to estimate in [0,1]
+	 */
+	public final double quantile;
+	
+	/**
+	 * The max number of samples in the window;
+	 * {@link Integer#MAX_VALUE} if the window is limited only by time
+	 */
+	public final int windowSize;
+	
+	/**
+	 * The time interval (msec) of the window;
+	 * 0 if the window is limited only by the number of samples
+	 */
+	public final long windowTime;
+	
+	/**
+	 * The two estimators started half a window apart
+	 */
+	private final P2QuantileEstimator[] estimators = new P2QuantileEstimator[2];
+	
+	/**
+	 * <code>true</code> if the estimator with the same index 
+	 * in {@link #estimators} is running
+	 */
+	private final boolean[] running = new boolean[2];
+	
+	/**
+	 * The timestamp of the first sample of the estimator with the same index 
+	 * in {@link #estimators}
+	 */
+	private final long[] startTimestamps = new long[2];
+	
+	/**
+	 * The quantile estimated after adding the last sample
+	 */
+	private double estimation;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param quantile The quantile to estimate in [0,1] (0.5 for the median)
+	 * @param windowSize The max number of samples in the window: 
+	 *                   if not positive, the window is limited only by time
+	 * @param windowTime The time interval (msec) of the window: 
+	 *                   if not positive, the window is limited only by the number of samples
+	 */
+	public QuantileFilter(double quantile, int windowSize, long windowTime) {
+		if (windowSize<=0 && windowTime<=0) {
+			throw new IllegalArgumentException("The window must be limited by number of samples and/or by time");
+		}
+		this.quantile=quantile;
+		this.windowSize = windowSize<=0 ? Integer.MAX_VALUE : windowSize;
+		this.windowTime = windowTime<=0 ? 0 : windowTime;
+		estimators[0] = new P2QuantileEstimator(quantile);
+		estimators[1] = new P2QuantileEstimator(quantile);
+	}
+	
+	/**
+	 * Check if the estimator covers the passed fraction of the window
+	 * 
+	 * @param index The index of the estimator
+	 * @param timestamp The timestamp of the new sample
+	 * @param fraction The fraction of the window (1 for the whole window)
+	 * @return <code>true</code> if the estimator covers the fraction of the window
+	 */
+	private boolean covers(int index, long timestamp, double fraction) {
+		return estimators[index].getCount()>=Math.max(1, (long)Math.ceil(windowSize*fraction)) ||
+				(windowTime>0 && timestamp-startTimestamps[index]>=windowTime*fraction);
+	}
+	
+	/**
+	 * Start the estimator with the passed index
+	 * 
+	 * @param index The index of the estimator
+	 * @param timestamp The timestamp of the first sample
+	 */
+	private void start(int index, long timestamp) {
+		estimators[index].reset();
+		startTimestamps[index]=timestamp;
+		running[index]=true;
+	}
+
+	/**
+	 * @see NumericFilterBase#sampleAdded(double, long)
+	 */
+	@Override
+	protected void sampleAdded(double value, long timestamp) {
+		// Stop the estimators that already cover the whole window
+		for (int i=0; i<2; i++) {
+			if (running[i] && covers(i, timestamp, 1)) {
+				running[i]=false;
+			}
+		}
+		if (!running[0] && !running[1]) {
+			start(0, timestamp);
+		} else {
+			int runningIdx = running[0] ? 0 : 1;
+			if (!running[1-runningIdx] && covers(runningIdx, timestamp, 0.5)) {
+				start(1-runningIdx, timestamp);
+			}
+		}
+		
+		int older=-1;
+		for (int i=0; i<2; i++) {
+			if (running[i]) {
+				estimators[i].add(value);
+				if (older<0 || estimators[i].getCount()>estimators[older].getCount()) {
+					older=i;
+				}
+			}
+		}
+		estimation=estimators[older].getQuantile();
+	}
+
+	/**
+	 * @see NumericFilterBase#getFilteredValue()
+	 */
+	@Override
+	protected double getFilteredValue() {
+		return estimation;
+	}
+}
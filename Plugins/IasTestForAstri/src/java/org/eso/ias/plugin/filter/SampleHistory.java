@@ -0,0 +1,240 @@
+package org.eso.ias.plugin.filter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eso.ias.plugin.Sample;
+
+/**
+ * The history of the samples of a filter implemented as
+ * a circular buffer.
+ * <P>
+ * The samples are time ordered: the newest sample has index 0
+ * and the oldest has index <code>size()-1</code>.
+ * <P>
+ * The buffer grows when needed up to {@link #maxSize} samples:
+ * when the buffer is full, adding a new sample evicts the oldest one.
+ * <BR>Adding a sample and removing the oldest samples (by number or by age)
+ * cost O(1) per sample; the samples can be iterated
+ * by index ({@link #get(int)}) without allocating any object.
+ * <P>
+ * <code>SampleHistory</code> is not thread safe.
+ *
+ * @see NumericSampleHistory
+ * @author acaproni
+ *
+ */
+public class SampleHistory {
+
+	/**
+	 * The initial size of the buffer
+	 */
+	private static final int initialCapacity = 16;
+
+	/**
+	 * The max number of samples in the history
+	 */
+	public final int maxSize;
+
+	/**
+	 * The circular buffer of samples
+	 */
+	private Sample[] samples;
+
+	/**
+	 * The position of the newest sample in {@link #samples}
+	 */
+	private int head=0;
+
+	/**
+	 * The number of samples in the history
+	 */
+	private int size=0;
+
+	/**
+	 * Constructor
+	 *
+	 * @param maxSize The max number of samples in the history
+	 */
+	public SampleHistory(int maxSize) {
+		if (maxSize<=0) {
+			throw new IllegalArgumentException("Invalid max size of the history: "+maxSize);
+		}
+		this.maxSize=maxSize;
+		samples = new Sample[Math.min(initialCapacity, maxSize)];
+	}
+
+	/**
+	 * Constructor of a history whose size is limited only by the memory
+	 */
+	public SampleHistory() {
+		this(Integer.MAX_VALUE);
+	}
+
+	/**
+	 * @return the number of samples in the history
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return <code>true</code> if the history is empty
+	 */
+	public boolean isEmpty() {
+		return size==0;
+	}
+
+	/**
+	 * Return the position in {@link #samples} of the
+	 * sample with the passed index
+	 *
+	 * @param index The index of the sample (0 is the newest)
+	 * @return the position of the sample in the buffer
+	 */
+	private int position(int index) {
+		int pos = head+index;
+		return pos>=samples.length ? pos-samples.length : pos;
+	}
+
+	/**
+	 * Add a sample that becomes the newest in the history.
+	 * <P>
+	 * The oldest sample is removed if the history already
+	 * contains {@link #maxSize} samples.
+	 *
+	 * @param sample The not <code>null</code> sample to add
+	 * @return The number of samples removed from the history (0 or 1)
+	 */
+	public int addNewest(Sample sample) {
+		if (sample==null) {
+			throw new IllegalArgumentException("A null sample is not permitted");
+		}
+		int removed=0;
+		if (size==samples.length) {
+			if (samples.length<maxSize) {
+				grow();
+			} else {
+				removed=removeOldest(1);
+			}
+		}
+		head = head==0 ? samples.length-1 : head-1;
+		samples[head]=sample;
+		size++;
+		return removed;
+	}
+
+	/**
+	 * Double the size of the buffer (without exceeding {@link #maxSize})
+	 * moving the samples at the beginning of the new buffer
+	 */
+	private void grow() {
+		int newCapacity = (int)Math.min((long)samples.length*2, maxSize);
+		Sample[] newSamples = new Sample[newCapacity];
+		for (int t=0; t<size; t++) {
+			newSamples[t]=samples[position(t)];
+		}
+		samples=newSamples;
+		head=0;
+	}
+
+	/**
+	 * Get a sample of the history
+	 *
+	 * @param index The index of the sample: 0 is the newest sample
+	 * @return the sample with the given index
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	public Sample get(int index) {
+		if (index<0 || index>=size) {
+			throw new IndexOutOfBoundsException("Index "+index+" out of range [0,"+size+"[");
+		}
+		return samples[position(index)];
+	}
+
+	/**
+	 * @return the newest sample or <code>null</code> if the history is empty
+	 */
+	public Sample getNewest() {
+		return size==0 ? null : samples[head];
+	}
+
+	/**
+	 * @return the oldest sample or <code>null</code> if the history is empty
+	 */
+	public Sample getOldest() {
+		return size==0 ? null : samples[position(size-1)];
+	}
+
+	/**
+	 * Remove the oldest samples from the history
+	 *
+	 * @param nSamples The number of samples to remove
+	 * @return The number of removed samples
+	 */
+	public int removeOldest(int nSamples) {
+		int toRemove = Math.min(Math.max(nSamples, 0), size);
+		for (int t=0; t<toRemove; t++) {
+			// Release the reference to the sample
+			samples[position(size-1)]=null;
+			size--;
+		}
+		return toRemove;
+	}
+
+	/**
+	 * Remove the oldest samples until the history
+	 * contains only nSamples samples.
+	 *
+	 * @param nSamples The number of samples to keep in the history
+	 * @return The number of removed samples
+	 */
+	public int keepNewest(int nSamples) {
+		return removeOldest(size-nSamples);
+	}
+
+	/**
+	 * Remove from the history the samples whose timestamp
+	 * is older or equal to the passed one.
+	 * <P>
+	 * The samples are removed from the oldest so only the removed
+	 * samples are checked.
+	 *
+	 * @param timestamp The timestamp to remove samples
+	 * @return The number of removed samples
+	 */
+	public int removeOlderThan(long timestamp) {
+		int removed=0;
+		while (size>0 && samples[position(size-1)].timestamp<=timestamp) {
+			removed+=removeOldest(1);
+		}
+		return removed;
+	}
+
+	/**
+	 * Clear the history.
+	 *
+	 * @return The number of samples removed from the history
+	 */
+	public int clear() {
+		return removeOldest(size);
+	}
+
+	/**
+	 * Return a copy of the history as a read-only list
+	 * ordered from the newest to the oldest sample
+	 *
+	 * @return a read-only copy of the history
+	 */
+	public List<Sample> toList() {
+		if (size==1) {
+			return Collections.singletonList(samples[head]);
+		}
+		List<Sample> ret = new ArrayList<>(size);
+		for (int t=0; t<size; t++) {
+			ret.add(samples[position(t)]);
+		}
+		return Collections.unmodifiableList(ret);
+	}
+}
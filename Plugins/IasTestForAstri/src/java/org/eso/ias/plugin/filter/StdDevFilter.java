@@ -0,0 +1,32 @@
+package org.eso.ias.plugin.filter;
+
+/**
+ * A filter that returns the (sample) standard deviation of the values 
+ * of the samples in the window.
+ * 
+ * @see VarianceFilter
+ * @author acaproni
+ *
+ */
+public class StdDevFilter extends VarianceFilter {
+
+	/**
+	 * Constructor
+	 * 
+	 * @param windowSize The max number of samples in the window: 
+	 *                   if not positive, the window is limited only by time
+	 * @param windowTime The time interval (msec) of the window: 
+	 *                   if not positive, the window is limited only by the number of samples
+	 */
+	public StdDevFilter(int windowSize, long windowTime) {
+		super(windowSize,windowTime);
+	}
+
+	/**
+	 * @see NumericFilterBase#getFilteredValue()
+	 */
+	@Override
+	protected double getFilteredValue() {
+		return Math.sqrt(getVariance());
+	}
+}
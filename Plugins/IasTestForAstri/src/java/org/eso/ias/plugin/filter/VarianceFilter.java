@@ -0,0 +1,141 @@
+package org.eso.ias.plugin.filter;
+
+/**
+ * A filter that returns the (sample) variance of the values of the samples
+ * in the window.
+ * <P>
+ * The variance is calculated in O(1) per sample by keeping the running sums
+ * of the values and of their squares.
+ * To limit the rounding errors, the sums are calculated on the 
+ * differences from a reference value and
+ * are recalculated from the values in the window after as many samples 
+ * as those in the window, or before, when the rounding errors 
+ * can be significant: for example when the values leaving the window
+ * are far bigger then those that remain.
+ * 
+ * @author acaproni
+ *
+ */
+public class VarianceFilter extends WindowFilterBase {
+	
+	/**
+	 * The reference value subtracted from the values before summing them
+	 */
+	private double reference=0;
+	
+	/**
+	 * The sum of the differences of the values in the window from the {@link #reference}
+	 */
+	private double sum=0;
+	
+	/**
+	 * The sum of the squares of the differences of the values 
+	 * in the window from the {@link #reference}
+	 */
+	private double sumOfSquares=0;
+	
+	/**
+	 * The sum of the squares of the differences from the {@link #reference}
+	 * of all the values added to and removed from the sums since they have been 
+	 * recalculated: it bounds the rounding errors of the sums
+	 */
+	private double sumOfAllSquares=0;
+	
+	/**
+	 * The sums are recalculated if the variance multiplied by (n-1) is 
+	 * less then this fraction of the {@link #sumOfAllSquares}, i.e.
+	 * when the relative error of the variance can be greater then 1E-7
+	 */
+	private static final double maxCancellation = 1E-9;
+	
+	/**
+	 * The number of samples added since the last
+	 * time the sums have been recalculated
+	 */
+	private int samplesSinceRecalc=0;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param windowSize The max number of samples in the window: 
+	 *                   if not positive, the window is limited only by time
+	 * @param windowTime The time interval (msec) of the window: 
+	 *                   if not positive, the window is limited only by the number of samples
+	 */
+	public VarianceFilter(int windowSize, long windowTime) {
+		super(windowSize,windowTime);
+	}
+
+	/**
+	 * @see WindowFilterBase#windowSampleAdded(double, long)
+	 */
+	@Override
+	protected void windowSampleAdded(double value, long timestamp) {
+		if (++samplesSinceRecalc>=window.size()) {
+			recalculateSums();
+		} else {
+			double diff = value-reference;
+			sum+=diff;
+			sumOfSquares+=diff*diff;
+			sumOfAllSquares+=diff*diff;
+		}
+	}
+	
+	/**
+	 * Recalculate the sums from the values in the window 
+	 * with the newest value as reference
+	 */
+	private void recalculateSums() {
+		samplesSinceRecalc=0;
+		reference=window.getNewestValue();
+		sum=0;
+		sumOfSquares=0;
+		for (int t=0; t<window.size(); t++) {
+			double diff = window.getValue(t)-reference;
+			sum+=diff;
+			sumOfSquares+=diff*diff;
+		}
+		sumOfAllSquares=sumOfSquares;
+	}
+
+	/**
+	 * @see WindowFilterBase#windowSampleRemoved(double, long)
+	 */
+	@Override
+	protected void windowSampleRemoved(double value, long timestamp) {
+		double diff = value-reference;
+		sum-=diff;
+		sumOfSquares-=diff*diff;
+		sumOfAllSquares+=diff*diff;
+	}
+	
+	/**
+	 * Return the variance of the values in the window.
+	 * <P>
+	 * The sums are recalculated if the variance is too small compared 
+	 * to the values summed since the last recalculation 
+	 * (see {@link #maxCancellation}).
+	 * 
+	 * @return the variance of the values in the window
+	 */
+	protected final double getVariance() {
+		int n = window.size();
+		if (n<2) {
+			return 0;
+		}
+		double deviations = sumOfSquares-sum*sum/n;
+		if (deviations<sumOfAllSquares*maxCancellation) {
+			recalculateSums();
+			deviations = sumOfSquares-sum*sum/n;
+		}
+		return deviations<0 ? 0 : deviations/(n-1);
+	}
+
+	/**
+	 * @see NumericFilterBase#getFilteredValue()
+	 */
+	@Override
+	protected double getFilteredValue() {
+		return getVariance();
+	}
+}
@@ -0,0 +1,100 @@
+package org.eso.ias.plugin.filter;
+
+/**
+ * Base class for the numeric filters that calculate the filtered value
+ * over a sliding window of samples.
+ * <P>
+ * The window contains at most the newest {@link #windowSize} samples
+ * and/or the samples received in the last {@link #windowTime} msecs 
+ * (as per the timestamp of the newest sample).
+ * <BR>The values of the samples in the window are stored in a {@link NumericSampleHistory}:
+ * the implementers are notified of each sample that enters 
+ * ({@link #windowSampleAdded(double, long)}) and leaves ({@link #windowSampleRemoved(double, long)}) 
+ * the window so that they can update the filtered value in amortized O(1).
+ * 
+ * @author acaproni
+ *
+ */
+public abstract class WindowFilterBase extends NumericFilterBase {
+	
+	/**
+	 * The max number of samples in the window;
+	 * {@link Integer#MAX_VALUE} if the window is limited only by time
+	 */
+	public final int windowSize;
+	
+	/**
+	 * The time interval (msec) of the window;
+	 * 0 if the window is limited only by the number of samples
+	 */
+	public final long windowTime;
+	
+	/**
+	 * The values of the samples in the window
+	 */
+	protected final NumericSampleHistory window;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param windowSize The max number of samples in the window: 
+	 *                   if not positive, the window is limited only by time
+	 * @param windowTime The time interval (msec) of the window: 
+	 *                   if not positive, the window is limited only by the number of samples
+	 */
+	public WindowFilterBase(int windowSize, long windowTime) {
+		if (windowSize<=0 && windowTime<=0) {
+			throw new IllegalArgumentException("The window must be limited by number of samples and/or by time");
+		}
+		this.windowSize = windowSize<=0 ? Integer.MAX_VALUE : windowSize;
+		this.windowTime = windowTime<=0 ? 0 : windowTime;
+		this.window = new NumericSampleHistory(this.windowSize);
+	}
+	
+	/**
+	 * A sample entered the window
+	 * 
+	 * @param value The value of the sample
+	 * @param timestamp The timestamp of the sample
+	 */
+	protected abstract void windowSampleAdded(double value, long timestamp);
+	
+	/**
+	 * A sample left the window
+	 * 
+	 * @param value The value of the sample
+	 * @param timestamp The timestamp of the sample
+	 */
+	protected abstract void windowSampleRemoved(double value, long timestamp);
+
+	/**
+	 * Add the sample to the window and remove the samples
+	 * that left the window.
+	 * 
+	 * @see NumericFilterBase#sampleAdded(double, long)
+	 */
+	@Override
+	protected final void sampleAdded(double value, long timestamp) {
+		if (window.size()==windowSize) {
+			removeOldest();
+		}
+		window.addNewest(value, timestamp);
+		windowSampleAdded(value, timestamp);
+		if (windowTime>0) {
+			long threshold = timestamp-windowTime;
+			while (window.getOldestTimestamp()<=threshold) {
+				removeOldest();
+			}
+		}
+	}
+	
+	/**
+	 * Remove the oldest sample from the window
+	 */
+	private void removeOldest() {
+		double oldestValue = window.getOldestValue();
+		long oldestTimestamp = window.getOldestTimestamp();
+		window.removeOldest(1);
+		windowSampleRemoved(oldestValue, oldestTimestamp);
+	}
+}
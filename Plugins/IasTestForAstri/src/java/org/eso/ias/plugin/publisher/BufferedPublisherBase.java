@@ -5,6 +5,7 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.concurrent.ScheduledExecutorService;
 
+import org.eso.ias.plugin.ValueToSend;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -25,12 +26,6 @@ public abstract class BufferedPublisherBase extends PublisherBase implements Mon
 	 */
 	private final Logger logger = LoggerFactory.getLogger(BufferedPublisherBase.class);
 	
-	/**
-	 * The data structure to send to the core of the IAS:
-	 * it contains all the monitored point values and implements the buffering.
-	 */
-	private final BufferedMonitoredSystemData monitorPointsToSend = new BufferedMonitoredSystemData();
-
 
 	/**
 	 * Constructor
@@ -50,6 +45,22 @@ public abstract class BufferedPublisherBase extends PublisherBase implements Mon
 		super(pluginId,monitoredSystemId,serverName,port,executorSvc);
 	}
 	
+	/**
+	 * Constructor: the values are sent by a thread owned by this object
+	 * 
+	 * @param pluginId The identifier of the plugin
+	 * @param monitoredSystemId The identifier of the system monitored by the plugin
+	 * @param serverName The name of the server
+	 * @param port The port of the server
+	 */
+	public BufferedPublisherBase(
+			String pluginId,
+			String monitoredSystemId,
+			String serverName, 
+			int port) {
+		super(pluginId,monitoredSystemId,serverName,port);
+	}
+	
 	/**
 	 * Provide a implementation of {@link PublisherBase#publish(MonitorPointData)}.
 	 * <P>
@@ -71,60 +82,42 @@ public abstract class BufferedPublisherBase extends PublisherBase implements Mon
 	 * 
 	 * @param data The data to send to the core of the IAS
 	 * @return The number of bytes sent to the core of the IAS
+	 *         (0 if they are accounted asynchronously in {@link #bytesSent})
 	 * @throws PublisherException In case of error publishing 
 	 */
 	protected abstract long publish(BufferedMonitoredSystemData data) throws PublisherException;
 	
 	/**
-	 * Send the monitor points to the core of the IAS.
-	 * <P>
-	 * The method is synchronized as it can be called by 2 different threads:
-	 * when the throttling time interval elapses and if the max size
-	 * of the buffer has been reached
+	 * Build the message with all the passed values of monitor points
+	 * to send in the I/O thread.
+	 * 
+	 * @see PublisherBase#buildMessage(Collection)
 	 */
 	@Override
-	protected synchronized void sendMonitoredPointsToIas() {
-		if (monitorPoints.isEmpty()) {
-			return;
-		}
-		if (isStopped() || isClosed()) {
-			monitorPoints.clear();
-			return;
-		}
-		// No need to synchronize iso8601dateFormat that is used only 
-		// by this (already synchronized) method
-		String now = iso8601dateFormat.format(new Date(System.currentTimeMillis()));
-		monitorPointsToSend.setPublishTime(now);
-		synchronized (monitorPoints) {
-			Collection<MonitorPointDataToBuffer> valuesToSend = new ArrayList<>(monitorPoints.values().size());
-			monitorPoints.values().forEach(mpv -> {
-				valuesToSend.add(new MonitorPointDataToBuffer(mpv));
-				monitorPointsSent.incrementAndGet();
-			});
-			monitorPointsToSend.setMonitorPoints(valuesToSend);
-			monitorPoints.clear();
-		}
-		publishedMessages.incrementAndGet();
-		try {
-			publish(monitorPointsToSend);
-		} catch (PublisherException pe) {
-			numOfErrorsSending.incrementAndGet();
-			// Errors publishing are ignored
-			if (numOfErrorsSending.get()<9) {
-				logger.error("Error publishing data",pe);
-			} else {
-				if (numOfErrorsSending.get()%10L==0) {
-					logger.error("Error publishing data (log of many other errors suppressed)",pe);
+	protected Runnable buildMessage(final Collection<ValueToSend> values) {
+		return new Runnable() {
+			@Override
+			public void run() {
+				// The data structure to send to the core of the IAS:
+				// it contains all the monitored point values and implements the buffering.
+				final BufferedMonitoredSystemData monitorPointsToSend = new BufferedMonitoredSystemData();
+				monitorPointsToSend.setSystemID(pluginId);
+				monitorPointsToSend.setMonitoredSystemID(monitoredSystemId);
+				// No need to synchronize iso8601dateFormat that is used only 
+				// by the I/O thread
+				String now = iso8601dateFormat.format(new Date(System.currentTimeMillis()));
+				monitorPointsToSend.setPublishTime(now);
+				final Collection<MonitorPointDataToBuffer> valuesToSend = new ArrayList<>(values.size());
+				values.forEach(mpv -> valuesToSend.add(new MonitorPointDataToBuffer(mpv)));
+				monitorPointsToSend.setMonitorPoints(valuesToSend);
+				monitorPointsSent.addAndGet(valuesToSend.size());
+				publishedMessages.incrementAndGet();
+				try {
+					bytesSent.addAndGet(publish(monitorPointsToSend));
+				} catch (PublisherException pe) {
+					notifyPublishingError(pe);
 				}
 			}
-		}
-		monitorPointsToSend.getMonitorPoints().clear();
-	}
-	
-	@Override
-	public synchronized void setUp() throws PublisherException {
-		super.setUp();
-		monitorPointsToSend.setSystemID(pluginId);
-		monitorPointsToSend.setMonitoredSystemID(monitoredSystemId);
+		};
 	}
 }
@@ -74,7 +74,7 @@ public class MonitorPointDataToBuffer {
 	 */
 	public MonitorPointDataToBuffer(ValueToSend value) {
 		setId(value.id);
-		setValue(value.value.toString());
+		setValue(value.valueToString());
 		synchronized (iso8601dateFormat) {
 			setSampleTime(iso8601dateFormat.format(new Date(value.producedTimestamp)));
 			setFilteredTime(iso8601dateFormat.format(new Date(value.filteredTimestamp)));
@@ -86,6 +86,12 @@ public interface MonitorPointSender {
 		 */
 		public final long numOfErrorsPublishing;
 		
+		/**
+		 * The number of monitor point values discarded without 
+		 * sending them to the core of the IAS because the transport was too slow
+		 */
+		public final long numOfMonitorPointValuesDiscarded;
+		
 		/**
 		 * Constructor
 		 * 
@@ -101,12 +107,39 @@ public interface MonitorPointSender {
 				long numOfMonitorPointValuesSubmitted, 
 				long numOfBytesSent,
 				long numOfErrorsPublishing) {
+			this(
+					numOfMessagesSent,
+					numOfMonitorPointValuesSent,
+					numOfMonitorPointValuesSubmitted,
+					numOfBytesSent,
+					numOfErrorsPublishing,
+					0L);
+		}
+		
+		/**
+		 * Constructor
+		 * 
+		 * @param numOfMessagesSent The number of messages sent in the last time interval
+		 * @param numOfMonitorPointValuesSent The number of monitor point values sent in the last time interval
+		 * @param numOfMonitorPointValuesSubmitted: The number of monitor point values submitted in the last time interval
+		 * @param numOfBytesSent The number of bytes sent in the last time interval
+		 * @param numOfErrorsPublishing The number of errors reported while publishing
+		 * @param numOfMonitorPointValuesDiscarded The number of monitor point values discarded in the last time interval 
+		 */
+		public SenderStats(
+				long numOfMessagesSent,
+				long numOfMonitorPointValuesSent, 
+				long numOfMonitorPointValuesSubmitted, 
+				long numOfBytesSent,
+				long numOfErrorsPublishing,
+				long numOfMonitorPointValuesDiscarded) {
 			super();
 			this.numOfMessagesSent = numOfMessagesSent;
 			this.numOfMonitorPointValuesSent = numOfMonitorPointValuesSent;
 			this.numOfMonitorPointValuesSubmitted=numOfMonitorPointValuesSubmitted;
 			this.numOfBytesSent = numOfBytesSent;
 			this.numOfErrorsPublishing=numOfErrorsPublishing;
+			this.numOfMonitorPointValuesDiscarded=numOfMonitorPointValuesDiscarded;
 		}
 	}
 	
@@ -117,6 +150,19 @@ public interface MonitorPointSender {
 	 */
 	public void offer(ValueToSend monitorPoint);
 	
+	/**
+	 * Offer a monitor point to the publisher to be sent to the core
+	 * as soon as possible, without waiting for the other monitor points 
+	 * to send them all at once.
+	 * <P>
+	 * The default implementation delegates to {@link #offer(ValueToSend)}.
+	 * 
+	 * @param monitorPoint The not <code>null</code> monitor point to be sent to the IAS
+	 */
+	public default void offerImmediately(ValueToSend monitorPoint) {
+		offer(monitorPoint);
+	}
+	
 	/**
 	 * The statistics collected by the publisher after the previous invocation of this method.
 	 * <P>
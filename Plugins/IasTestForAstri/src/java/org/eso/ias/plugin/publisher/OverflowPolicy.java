@@ -0,0 +1,85 @@
+package org.eso.ias.plugin.publisher;
+
+/**
+ * The policy applied by the {@link PublisherBase} when a value is offered
+ * for a monitor point that is not yet in the buffer and the buffer already
+ * contains {@link PublisherBase#maxBufferSize} values (or the size passed to its constructor).
+ * <P>
+ * A value of a monitor point already in the buffer always replaces
+ * the older one so it never overflows the buffer.
+ * <P>
+ * The policy is set by the {@value PublisherBase#OVERFLOW_POLICY_PROPNAME} property
+ * or passed to the constructor of the {@link PublisherBase}.
+ *
+ * @see PublisherBase#overflowPolicy
+ * @author acaproni
+ */
+public enum OverflowPolicy {
+
+	/**
+	 * The buffer keeps only the latest value of each monitor point
+	 * and the values are sent when the throttling time elapses.
+	 * <P>
+	 * The values of the monitor points already in the buffer always coalesce;
+	 * the value of a monitor point not in the buffer is discarded
+	 * so the offering thread is never delayed.
+	 * <BR>With a {@link PublisherBase#maxBufferSize} not less then the number of monitor points
+	 * of the plugin no value is ever discarded.
+	 */
+	COALESCE_LATEST,
+
+	/**
+	 * The oldest value in the buffer, i.e. the value of the monitor point 
+	 * added to the buffer before the others, is discarded to make room for the new value.
+	 * <P>
+	 * The oldest value is searched across all the stripes of the buffer: 
+	 * it costs O(number of stripes) for each discarded value.
+	 */
+	DROP_OLDEST,
+
+	/**
+	 * The new value is discarded
+	 */
+	DROP_NEW,
+
+	/**
+	 * The offering thread waits until the buffer is emptied by the
+	 * sending of the values, or the {@link PublisherBase#overflowTimeout} elapses:
+	 * in this case the new value is discarded.
+	 * <P>
+	 * This policy slows down the producers of the values and must not be
+	 * used if the values are offered by the thread that sends them.
+	 */
+	BLOCK,
+
+	/**
+	 * The values in the buffer are sent before the throttling time elapses
+	 * i.e. they are immediately handed off to the I/O thread.
+	 * <P>
+	 * If the queue of the I/O thread is full, the values cannot be handed off
+	 * and the new value is discarded.
+	 * <P>
+	 * This is the default policy.
+	 */
+	SPILL;
+
+	/**
+	 * Get the policy with the passed name
+	 *
+	 * @param name The name of the policy (case insensitive)
+	 * @param defaultPolicy The policy to return if the name is <code>null</code> or
+	 *                      does not match with any policy
+	 * @return the policy with the passed name or the default policy
+	 */
+	public static OverflowPolicy fromString(String name, OverflowPolicy defaultPolicy) {
+		if (name==null) {
+			return defaultPolicy;
+		}
+		for (OverflowPolicy policy: values()) {
+			if (policy.name().equalsIgnoreCase(name.trim())) {
+				return policy;
+			}
+		}
+		return defaultPolicy;
+	}
+}
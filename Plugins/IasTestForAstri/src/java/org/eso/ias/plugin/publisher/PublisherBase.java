@@ -3,18 +3,28 @@ package org.eso.ias.plugin.publisher;
 import java.io.IOException;
 import java.io.InputStream;
 import java.text.SimpleDateFormat;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import org.eso.ias.plugin.ValueToSend;
 import org.eso.ias.plugin.filter.FilteredValue;
+import org.eso.ias.plugin.thread.PluginThreadFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,9 +43,46 @@ import org.slf4j.LoggerFactory;
  * a misbehaving plugin to fire tons of messages per time interval.
  * Monitor point values are sent one by one to the core of the IAS.
  * <P>
- * Reaching the max size of the buffer, triggers the immediate sending 
- * of the values of the monitor points. The periodic thread will continue
- * to run. 
+ * The buffer is split in {@link #numOfBufferStripes} stripes, each one with its own
+ * map and lock, so that threads offering values of different monitor points 
+ * rarely contend for the same lock: the stripe of a monitor point is given by the hash of its ID.
+ * The number of values in the buffer is kept by an atomic counter ({@link #numOfBufferedValues}).
+ * <BR>Each stripe is double-buffered: when the throttling time elapses the map of the values
+ * of each stripe is swapped with an empty one (the spare map) while holding the lock of the stripe 
+ * and only then the values are sent, without holding any lock. 
+ * So the threads that offer the values never wait for the sending.
+ * <P>
+ * The values are sent by a thread of the executor passed in the constructor.
+ * Publishers built without an executor own a dedicated thread so that 
+ * the publishing of the plugin is not delayed by other tasks 
+ * (the refresh of the monitor points or the polling of the monitored system);
+ * the thread is terminated by {@link #tearDown()}.
+ * <P>
+ * The executor only collects the values to send: the transport (i.e. {@link #publish(MonitorPointData)})
+ * runs in a dedicated I/O thread that gets the messages out of a queue 
+ * with at most {@link #handOffQueueSize} messages with the values of the buffer 
+ * so that a transport blocked, for example because the server is unreachable, 
+ * does not block the executor.
+ * If the queue is full, the values are not taken out of the buffer: they keep 
+ * coalescing and are sent when the I/O thread catches up.
+ * <P>
+ * When a value of a monitor point not already in the buffer is offered 
+ * and the buffer contains {@link #bufferCapacity} values, the {@link #bufferOverflowPolicy} 
+ * is applied: by default ({@link OverflowPolicy#SPILL}) reaching the max size of the buffer 
+ * triggers the immediate sending of the values of the monitor points. 
+ * The periodic thread will continue to run. 
+ * <P>
+ * Values offered with {@link #offerImmediately(ValueToSend)} do not wait for the
+ * throttling time: they are immediately handed off to the I/O thread. The values offered
+ * immediately while the I/O thread is busy are collected in one message 
+ * ({@link #immediateValues}) so that a burst of them does not fill the queue 
+ * and does not delay the sending of the values in the buffer. 
+ * If the message already contains {@link #bufferCapacity} values, the value is not discarded 
+ * but put in the buffer to be sent with the next message.
+ * <P>
+ * The messages are built by {@link #buildMessage(Collection)} and the data to send are 
+ * generated by the I/O thread when it runs the message so that the threads that offer 
+ * the values immediately do not wait for the values in the buffer to be converted.
  * <P>
  * <em>Life cyle</em>: 
  * <UL>
@@ -70,20 +117,105 @@ public abstract class PublisherBase implements MonitorPointSender {
 	public static final String MAX_BUFFER_SIZE_PROPNAME = "org.eso.ias.plugin.buffersize";
 	
 	/**
-	 * The default max size of the buffer
+	 * The default max size of the buffer.
+	 * <P>
+	 * It is far bigger then the number of monitor points of a plugin 
+	 * but bounds the memory used by the buffer if the values cannot be sent.
 	 */
-	public static final int defaultBufferSize = Integer.MAX_VALUE;
+	public static final int defaultBufferSize = 100000;
 	
 	/**
-	 * The max number of monitor point values to keep in memory in the time interval.
+	 * The max number of monitor point values to keep in memory in the time interval
+	 * set by the {@value #MAX_BUFFER_SIZE_PROPNAME} property.
 	 * <P>
-	 * If the size of the buffer is greater or equal the <code>maxBufferSize</code>, the 
-	 * monitor point values are sent immediately to the core of the IAS
-	 * 
+	 * It is the {@link #bufferCapacity} of the publishers built with 
+	 * the public constructors.
 	 */
 	public static final int maxBufferSize = Integer.getInteger(MAX_BUFFER_SIZE_PROPNAME,defaultBufferSize)<=0 ?
 			defaultBufferSize : Integer.getInteger(MAX_BUFFER_SIZE_PROPNAME,defaultBufferSize);
 	
+	/**
+	 * The name of the property to set the policy applied when the buffer is full
+	 */
+	public static final String OVERFLOW_POLICY_PROPNAME = "org.eso.ias.plugin.buffer.overflow";
+	
+	/**
+	 * The default policy applied when the buffer is full
+	 */
+	public static final OverflowPolicy defaultOverflowPolicy = OverflowPolicy.SPILL;
+	
+	/**
+	 * The policy applied when a value of a monitor point not already in the buffer
+	 * is offered and the buffer is full, set by the {@value #OVERFLOW_POLICY_PROPNAME} property.
+	 * <P>
+	 * It is the {@link #bufferOverflowPolicy} of the publishers built with 
+	 * the public constructors.
+	 */
+	public static final OverflowPolicy overflowPolicy = 
+			OverflowPolicy.fromString(System.getProperty(OVERFLOW_POLICY_PROPNAME), defaultOverflowPolicy);
+	
+	/**
+	 * The name of the property to set the max time (msec) to wait for room in the 
+	 * buffer with the {@link OverflowPolicy#BLOCK} policy
+	 */
+	public static final String OVERFLOW_TIMEOUT_PROPNAME = "org.eso.ias.plugin.buffer.overflow.timeout";
+	
+	/**
+	 * The default max time (msec) to wait for room in the buffer
+	 */
+	public static final long defaultOverflowTimeout = 100;
+	
+	/**
+	 * The max time (msec) to wait for room in the buffer with 
+	 * the {@link OverflowPolicy#BLOCK} policy
+	 */
+	public static final long overflowTimeout = Long.getLong(OVERFLOW_TIMEOUT_PROPNAME,defaultOverflowTimeout)<0 ?
+			defaultOverflowTimeout : Long.getLong(OVERFLOW_TIMEOUT_PROPNAME,defaultOverflowTimeout);
+	
+	/**
+	 * The name of the property to set the number of stripes of the buffer
+	 */
+	public static final String BUFFER_STRIPES_PROPNAME = "org.eso.ias.plugin.buffer.stripes";
+	
+	/**
+	 * The default number of stripes of the buffer
+	 */
+	public static final int defaultNumOfBufferStripes = 16;
+	
+	/**
+	 * The max number of stripes of the buffer
+	 */
+	public static final int maxNumOfBufferStripes = 1024;
+	
+	/**
+	 * The number of stripes of the buffer: each stripe has its own lock
+	 * so the more the stripes the less the contention between the threads
+	 * that offer values
+	 */
+	public static final int numOfBufferStripes = 
+			Integer.getInteger(BUFFER_STRIPES_PROPNAME,defaultNumOfBufferStripes)<=0 || Integer.getInteger(BUFFER_STRIPES_PROPNAME,defaultNumOfBufferStripes)>maxNumOfBufferStripes ?
+					defaultNumOfBufferStripes : Integer.getInteger(BUFFER_STRIPES_PROPNAME,defaultNumOfBufferStripes);
+	
+	/**
+	 * The name of the property to set the max number of messages waiting to be 
+	 * sent by the I/O thread
+	 */
+	public static final String HANDOFF_QUEUE_SIZE_PROPNAME = "org.eso.ias.plugin.publisher.queuesize";
+	
+	/**
+	 * The default max number of messages waiting to be sent by the I/O thread
+	 */
+	public static final int defaultHandOffQueueSize = 16;
+	
+	/**
+	 * The max number of messages with the values of the buffer waiting to be sent by the I/O thread.
+	 * <P>
+	 * A message is built every {@link #throttlingTime} so the queue fills up only if the 
+	 * transport is blocked for more than <code>handOffQueueSize*throttlingTime</code> msecs.
+	 */
+	public static final int handOffQueueSize = Integer.getInteger(HANDOFF_QUEUE_SIZE_PROPNAME,defaultHandOffQueueSize)<=0 ?
+			defaultHandOffQueueSize : Integer.getInteger(HANDOFF_QUEUE_SIZE_PROPNAME,defaultHandOffQueueSize);
+	
 	/**
 	 * The logger
 	 */
@@ -110,15 +242,108 @@ public abstract class PublisherBase implements MonitorPointSender {
 	public final String monitoredSystemId;
 	
 	/**
-	 * The map to store the monitor points received during the throttling time interval.
-	 * <P> 
-	 * A map allows to save only the last received update of a monitor point if a misbehaving
-	 * implementation is continuously updating a value.
+	 * The value of a monitor point in the buffer
+	 * 
+	 * @author acaproni
+	 */
+	private static final class BufferedValue {
+		
+		/**
+		 * The last value offered for the monitor point:
+		 * a newer value replaces the older one (guarded by the lock of the stripe)
+		 */
+		private ValueToSend value;
+		
+		/**
+		 * The order of the monitor point in the whole buffer i.e. the value of 
+		 * the {@link PublisherBase#bufferSequence} when the monitor point 
+		 * has been added to the buffer
+		 */
+		private final long sequence;
+
+		/**
+		 * Constructor
+		 * 
+		 * @param value The value of the monitor point
+		 * @param sequence The order of the monitor point in the buffer
+		 */
+		private BufferedValue(ValueToSend value, long sequence) {
+			this.value = value;
+			this.sequence = sequence;
+		}
+	}
+	
+	/**
+	 * A stripe of the buffer with the values of the monitor points 
+	 * whose IDs have the same hash modulo the number of stripes.
+	 * <P>
+	 * The stripe is also the lock that guards its {@link #monitorPoints}
+	 * and the threads waiting for room in the buffer ({@link OverflowPolicy#BLOCK}) 
+	 * wait on the stripe.
+	 * 
+	 * @author acaproni
+	 */
+	private static final class BufferStripe {
+		
+		/**
+		 * The map to store the monitor points received during the throttling time interval.
+		 * <P> 
+		 * A map allows to save only the last received update of a monitor point if a misbehaving
+		 * implementation is continuously updating a value.
+		 * <P>
+		 * The key is the ID of the monitor point, the value holds the {@link FilteredValue} as 
+		 * returned applying the filter to a set of samples.
+		 * <P>
+		 * The map is ordered by insertion so that its first value is the oldest of the stripe
+		 * and the oldest value of the buffer can be discarded by the 
+		 * {@link OverflowPolicy#DROP_OLDEST} policy ({@link PublisherBase#discardOldestValues()}).
+		 * <BR>The map is swapped with the {@link #spareMonitorPoints} when the values are sent.
+		 */
+		private Map<String, BufferedValue> monitorPoints = new LinkedHashMap<>();
+		
+		/**
+		 * The empty map that replaces {@link #monitorPoints} when its values are sent.
+		 * <P>
+		 * The map is accessed only by {@link PublisherBase#sendMonitoredPointsToIas()} while holding
+		 * the lock of the publisher.
+		 */
+		private Map<String, BufferedValue> spareMonitorPoints = new LinkedHashMap<>();
+	}
+	
+	/**
+	 * The stripes of the buffer
+	 */
+	private final BufferStripe[] bufferStripes = new BufferStripe[numOfBufferStripes];
+	
+	/**
+	 * The max number of monitor point values in the buffer ({@link #maxBufferSize} by default)
+	 */
+	private final int bufferCapacity;
+	
+	/**
+	 * The policy applied when a value of a monitor point not already in the buffer
+	 * is offered and the buffer contains {@link #bufferCapacity} values 
+	 * ({@link #overflowPolicy} by default)
+	 */
+	private final OverflowPolicy bufferOverflowPolicy;
+	
+	/**
+	 * The number of values in all the stripes of the buffer.
 	 * <P>
-	 * The key is the ID of the monitor point, the value is the {@link FilteredValue} as 
-	 * returned applying the filter to a set of samples.
+	 * A thread adding the value of a monitor point not already in the buffer
+	 * increases the counter before adding the value so that the size of the buffer
+	 * never exceeds the {@link #bufferCapacity} whatever the {@link #bufferOverflowPolicy}
+	 * (a value offered immediately when the I/O thread is too slow is 
+	 * buffered regardless of the size of the buffer, see {@link #offerImmediately(ValueToSend)}).
 	 */
-	protected final Map<String, ValueToSend>monitorPoints = Collections.synchronizedMap(new HashMap<>());
+	private final AtomicInteger numOfBufferedValues = new AtomicInteger(0);
+	
+	/**
+	 * The counter that orders the monitor points added to the buffer
+	 * 
+	 * @see BufferedValue#sequence
+	 */
+	private final AtomicLong bufferSequence = new AtomicLong(0);
 	
 	/**
 	 * The executor service to start the timer thread to send values to the 
@@ -126,6 +351,66 @@ public abstract class PublisherBase implements MonitorPointSender {
 	 */
 	private final ScheduledExecutorService executorService;
 	
+	/**
+	 * <code>true</code> if the {@link #executorService} has been built
+	 * by this object that must shut it down 
+	 */
+	private final boolean ownsExecutorService;
+	
+	/**
+	 * The future of the task that periodically sends the 
+	 * values to the core of the IAS
+	 */
+	private ScheduledFuture<?> sendingFuture = null;
+	
+	/**
+	 * The queue to hand off the messages to send to the {@link #ioThread}.
+	 * <P>
+	 * The queue is not bounded by itself:
+	 * <UL>
+	 * 	<LI>the messages with the values of the buffer are at most {@link #handOffQueueSize}
+	 *      ({@link #numOfQueuedBufferMessages})
+	 * 	<LI>a message with the values offered immediately is queued only if the last message 
+	 *      in the queue is not already such a message ({@link #immediateValues}), so they 
+	 *      are at most one more then the messages with the values of the buffer
+	 * </UL>
+	 */
+	private final BlockingQueue<Runnable> handOffQueue = new LinkedBlockingQueue<>();
+	
+	/**
+	 * The number of messages with the values of the buffer in the {@link #handOffQueue}
+	 */
+	private final AtomicInteger numOfQueuedBufferMessages = new AtomicInteger(0);
+	
+	/**
+	 * The values offered immediately that will be sent by the last message 
+	 * in the {@link #handOffQueue}, or <code>null</code> if the last message in the queue
+	 * does not send values offered immediately.
+	 * <P>
+	 * The list is closed (i.e. set to <code>null</code>) when a message is queued after it 
+	 * or the I/O thread starts sending it, so that the values are always sent
+	 * in the order they have been offered.
+	 * <BR>Guarded by the {@link #handOffLock}.
+	 */
+	private List<ValueToSend> immediateValues = null;
+	
+	/**
+	 * The lock to hold while moving values out of the buffer and handing them off 
+	 * to the {@link #handOffQueue}.
+	 * <P>
+	 * It guarantees that the messages are queued in the same order the values 
+	 * have been taken out of the buffer and it is held only for a short time: 
+	 * the periodic sending holds the lock of the publisher while the values
+	 * sent immediately take only this one.
+	 */
+	private final Object handOffLock = new Object();
+	
+	/**
+	 * The thread that sends the messages to the core of the IAS
+	 * getting them from the {@link #handOffQueue}
+	 */
+	private final Thread ioThread;
+	
 	/**
 	 * ISO 8601 date formatter
 	 */
@@ -162,9 +447,13 @@ public abstract class PublisherBase implements MonitorPointSender {
 	protected final AtomicLong publishedMessages = new AtomicLong(0);
 	
 	/**
-	 * The number of bytes sent to the core of the IAS
+	 * The number of bytes sent to the core of the IAS.
+	 * <P>
+	 * It is increased by the bytes returned by {@link #publish(MonitorPointData)}:
+	 * publishers that send the data asynchronously can increase it when the data 
+	 * has been effectively sent.
 	 */
-	private final AtomicLong bytesSent = new AtomicLong(0);
+	protected final AtomicLong bytesSent = new AtomicLong(0);
 	
 	/**
 	 * The number of monitor point values sent to the core of the IAS
@@ -180,6 +469,23 @@ public abstract class PublisherBase implements MonitorPointSender {
 	 * The number of errors while sending monitor point values to the core of the IAS
 	 */
 	protected final AtomicLong numOfErrorsSending = new AtomicLong(0);
+	
+	/**
+	 * The number of monitor point values discarded by the {@link #bufferOverflowPolicy}
+	 */
+	private final AtomicLong monitorPointsDiscarded = new AtomicLong(0);
+	
+	/**
+	 * The number of times the values could not be handed off to the {@link #handOffQueue}
+	 * because too many messages were waiting to be sent
+	 */
+	private final AtomicLong numOfHandOffRejected = new AtomicLong(0);
+	
+	/**
+	 * The number of times the buffer overflowed, 
+	 * indexed by the ordinal of the {@link #bufferOverflowPolicy} applied
+	 */
+	private final AtomicLongArray numOfOverflows = new AtomicLongArray(OverflowPolicy.values().length);
 
 	/**
 	 * Constructor
@@ -196,6 +502,79 @@ public abstract class PublisherBase implements MonitorPointSender {
 			String serverName, 
 			int port,
 			ScheduledExecutorService executorSvc) {
+		this(pluginId,monitoredSystemId,serverName,port,executorSvc,false,maxBufferSize,overflowPolicy);
+	}
+	
+	/**
+	 * Constructor with the size of the buffer and the policy applied when it is full
+	 * instead of those set by the properties ({@link #maxBufferSize} and {@link #overflowPolicy}).
+	 * 
+	 * @param pluginId The identifier of the plugin
+	 * @param monitoredSystemId The identifier of the system monitored by the plugin
+	 * @param serverName The name of the server
+	 * @param port The port of the server
+	 * @param executorSvc The executor service
+	 * @param bufferCapacity The max number of monitor point values in the buffer
+	 * @param policy The policy applied when the buffer is full
+	 */
+	protected PublisherBase(
+			String pluginId,
+			String monitoredSystemId,
+			String serverName, 
+			int port,
+			ScheduledExecutorService executorSvc,
+			int bufferCapacity,
+			OverflowPolicy policy) {
+		this(pluginId,monitoredSystemId,serverName,port,executorSvc,false,bufferCapacity,policy);
+	}
+	
+	/**
+	 * Constructor.
+	 * <P>
+	 * The values are sent by a dedicated thread owned by this object.
+	 * 
+	 * @param pluginId The identifier of the plugin
+	 * @param monitoredSystemId The identifier of the system monitored by the plugin
+	 * @param serverName The name of the server
+	 * @param port The port of the server
+	 */
+	public PublisherBase(
+			String pluginId,
+			String monitoredSystemId,
+			String serverName, 
+			int port) {
+		this(
+				pluginId,
+				monitoredSystemId,
+				serverName,
+				port,
+				Executors.newSingleThreadScheduledExecutor(new PluginThreadFactory()),
+				true,
+				maxBufferSize,
+				overflowPolicy);
+	}
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param pluginId The identifier of the plugin
+	 * @param monitoredSystemId The identifier of the system monitored by the plugin
+	 * @param serverName The name of the server
+	 * @param port The port of the server
+	 * @param executorSvc The executor service
+	 * @param ownsExecutorSvc <code>true</code> if the executor must be shut down by this object
+	 * @param bufferCapacity The max number of monitor point values in the buffer
+	 * @param policy The policy applied when the buffer is full
+	 */
+	private PublisherBase(
+			String pluginId,
+			String monitoredSystemId,
+			String serverName, 
+			int port,
+			ScheduledExecutorService executorSvc,
+			boolean ownsExecutorSvc,
+			int bufferCapacity,
+			OverflowPolicy policy) {
 		if (pluginId==null || pluginId.isEmpty()) {
 			throw new IllegalArgumentException("The ID can't be null nor empty");
 		}
@@ -216,7 +595,28 @@ public abstract class PublisherBase implements MonitorPointSender {
 			throw new IllegalArgumentException("The executor service can't be null");
 		}
 		this.executorService=executorSvc;
+		this.ownsExecutorService=ownsExecutorSvc;
+		if (bufferCapacity<=0) {
+			throw new IllegalArgumentException("Invalid size of the buffer: "+bufferCapacity);
+		}
+		this.bufferCapacity=bufferCapacity;
+		if (policy==null) {
+			throw new IllegalArgumentException("The overflow policy can't be null");
+		}
+		this.bufferOverflowPolicy=policy;
+		for (int t=0; t<bufferStripes.length; t++) {
+			bufferStripes[t] = new BufferStripe();
+		}
+		this.ioThread = new PluginThreadFactory().newThread(new Runnable() {
+			@Override
+			public void run() {
+				sendHandedOffMessages();
+			}
+		});
 		logger.info("Plugin {} sends monitor points to {}:{} at a rate of {} msec",pluginId,serverName,serverPort,throttlingTime);
+		if (bufferCapacity!=defaultBufferSize || bufferOverflowPolicy!=defaultOverflowPolicy) {
+			logger.info("Plugin {} buffers up to {} monitor points with overflow policy {}",pluginId,bufferCapacity,bufferOverflowPolicy);
+		}
 	}
 	
 	/**
@@ -226,7 +626,8 @@ public abstract class PublisherBase implements MonitorPointSender {
 	 * but some implementation can buffer the date and send them asynchronously.
 	 * 
 	 * @param mpData The monitor point data to send to the core of the IAS
-	 * @return The number of bytes sent to the core of the IAS
+	 * @return The number of bytes sent to the core of the IAS 
+	 *         (0 if they are accounted asynchronously in {@link #bytesSent})
 	 * @throws PublisherException In case of error publishing 
 	 */
 	protected abstract long publish(MonitorPointData mpData) throws PublisherException;
@@ -267,12 +668,13 @@ public abstract class PublisherBase implements MonitorPointSender {
 		
 		
 		// Start the thread to send the values to the core of the IAS
-		executorService.scheduleAtFixedRate(new Runnable() {
+		sendingFuture = executorService.scheduleAtFixedRate(new Runnable() {
 			@Override
 			public void run() {
 				sendMonitoredPointsToIas();
 			}
 		},throttlingTime, throttlingTime, TimeUnit.MILLISECONDS);
+		ioThread.start();
 		logger.debug("Generation of statistics activated with a frequency of {} minutes",throttlingTime);
 		
 		initialized=true;
@@ -284,40 +686,163 @@ public abstract class PublisherBase implements MonitorPointSender {
 	 * <P>
 	 * The method is synchronized as it can be called by 2 different threads:
 	 * when the throttling time interval elapses and if the max size
-	 * of the buffer has been reached
+	 * of the buffer has been reached.
+	 * <BR>The lock of each stripe of the buffer is held only to swap its map
+	 * with the spare one: the values are sent without holding it.
+	 * <BR>The {@link #handOffLock} is held until the values have been handed off 
+	 * so that a value offered immediately does not overtake the older values 
+	 * taken out of the buffer.
+	 * <P>
+	 * If the queue of the I/O thread is full, the values are left in the buffer
+	 * where they coalesce with the newer values, and are sent at the next invocation.
 	 */
 	protected synchronized void sendMonitoredPointsToIas() {
-		if (monitorPoints.isEmpty()) {
-			return;
+		final List<ValueToSend> valuesToSend = new ArrayList<>();
+		synchronized (handOffLock) {
+			if (numOfQueuedBufferMessages.get()>=handOffQueueSize) {
+				notifyHandOffRejected();
+				return;
+			}
+			for (BufferStripe stripe: bufferStripes) {
+				final Map<String, BufferedValue> stripeValues;
+				synchronized (stripe) {
+					if (stripe.monitorPoints.isEmpty()) {
+						continue;
+					}
+					stripeValues = stripe.monitorPoints;
+					stripe.monitorPoints = stripe.spareMonitorPoints;
+					numOfBufferedValues.addAndGet(-stripeValues.size());
+				}
+				stripeValues.values().forEach(bufferedValue -> valuesToSend.add(bufferedValue.value));
+				stripeValues.clear();
+				stripe.spareMonitorPoints = stripeValues;
+			}
+			if (!valuesToSend.isEmpty() && !stopped && !closed) {
+				final Runnable message = buildMessage(valuesToSend);
+				numOfQueuedBufferMessages.incrementAndGet();
+				handOffQueue.add(new Runnable() {
+					@Override
+					public void run() {
+						numOfQueuedBufferMessages.decrementAndGet();
+						message.run();
+					}
+				});
+				// The values offered immediately from now on must be sent after this message
+				immediateValues=null;
+			}
 		}
-		if (stopped || closed) {
-			monitorPoints.clear();
-			return;
+		if (bufferOverflowPolicy==OverflowPolicy.BLOCK) {
+			notifyWaitingForRoom();
 		}
-		// No need to synchronize iso8601dateFormat that is used only 
-		// by this (already synchronized) method
-		synchronized (monitorPoints) {
-			monitorPoints.values().forEach(mpv -> {
-				MonitorPointData mpData=new MonitorPointData(pluginId,monitoredSystemId,mpv);
-				monitorPointsSent.incrementAndGet();
-				try {
-					publishedMessages.incrementAndGet();
-					publish(mpData);
-				} catch (PublisherException pe) {
-					numOfErrorsSending.incrementAndGet();
-					// Errors publishing are ignored
-					if (numOfErrorsSending.get()<9) {
-						logger.error("Error publishing data",pe);
-					} else {
-						if (numOfErrorsSending.get()%10L==0) {
-							logger.error("Error publishing data (log of many other errors suppressed)",pe);
-						}
+	}
+	
+	/**
+	 * Wake up the threads waiting for room in the buffer
+	 * ({@link OverflowPolicy#BLOCK})
+	 */
+	private void notifyWaitingForRoom() {
+		for (BufferStripe stripe: bufferStripes) {
+			synchronized (stripe) {
+				stripe.notifyAll();
+			}
+		}
+	}
+	
+	/**
+	 * Get the stripe of the buffer of the monitor point with the passed ID
+	 * 
+	 * @param id The ID of the monitor point
+	 * @return the stripe of the buffer of the monitor point
+	 */
+	private BufferStripe stripeOf(String id) {
+		int hash = id.hashCode();
+		return bufferStripes[Math.floorMod(hash ^ (hash>>>16), bufferStripes.length)];
+	}
+	
+	/**
+	 * Build the message to send the passed values of monitor points
+	 * in the I/O thread.
+	 * <P>
+	 * The data to send are generated when the I/O thread runs the message:
+	 * this method is cheap and can be called while holding the {@link #handOffLock}.
+	 * 
+	 * @param values The not empty values of the monitor points to send;
+	 *               the collection must not be modified after this call
+	 * @return the message to hand off to the I/O thread
+	 */
+	protected Runnable buildMessage(final Collection<ValueToSend> values) {
+		return new Runnable() {
+			@Override
+			public void run() {
+				for (ValueToSend mpv: values) {
+					monitorPointsSent.incrementAndGet();
+					try {
+						publishedMessages.incrementAndGet();
+						bytesSent.addAndGet(publish(new MonitorPointData(pluginId,monitoredSystemId,mpv)));
+					} catch (PublisherException pe) {
+						notifyPublishingError(pe);
 					}
 				}
-			});
-			monitorPoints.clear();
+			}
+		};
+	}
+	
+	/**
+	 * Account and log that the values in the buffer could not be handed off 
+	 * to the I/O thread because its queue is full.
+	 * <P>
+	 * The log of many rejections is suppressed.
+	 */
+	private void notifyHandOffRejected() {
+		long rejected = numOfHandOffRejected.incrementAndGet();
+		if (rejected<9 || rejected%10L==0) {
+			logger.warn("The transport is too slow: {} messages waiting to be sent; {} monitor point values kept in the buffer",
+					numOfQueuedBufferMessages.get(),
+					numOfBufferedValues.get());
+		}
+	}
+	
+	/**
+	 * The loop of the I/O thread that sends the messages 
+	 * handed off by {@link #sendMonitoredPointsToIas()} and {@link #offerImmediately(ValueToSend)}.
+	 * <P>
+	 * The loop terminates when the thread is interrupted by {@link #tearDown()}.
+	 */
+	private void sendHandedOffMessages() {
+		logger.debug("I/O thread started");
+		while (!closed) {
+			Runnable message;
+			try {
+				message = handOffQueue.take();
+			} catch (InterruptedException ie) {
+				break;
+			}
+			try {
+				message.run();
+			} catch (Throwable t) {
+				logger.error("Error sending a message to the core of the IAS",t);
+			}
+		}
+		handOffQueue.clear();
+		logger.debug("I/O thread terminated");
+	}
+	
+	/**
+	 * Account and log an error publishing data.
+	 * <P>
+	 * Errors publishing are ignored: the log of many errors is suppressed 
+	 * 
+	 * @param pe The error publishing data
+	 */
+	protected void notifyPublishingError(PublisherException pe) {
+		long errors = numOfErrorsSending.incrementAndGet();
+		if (errors<9) {
+			logger.error("Error publishing data",pe);
+		} else {
+			if (errors%10L==0) {
+				logger.error("Error publishing data (log of many other errors suppressed)",pe);
+			}
 		}
-		
 	}
 	
 	/**
@@ -332,6 +857,20 @@ public abstract class PublisherBase implements MonitorPointSender {
 			return;
 		}
 		closed=true;
+		synchronized (this) {
+			if (sendingFuture!=null) {
+				sendingFuture.cancel(false);
+			}
+		}
+		if (ownsExecutorService) {
+			executorService.shutdown();
+		}
+		ioThread.interrupt();
+		try {
+			ioThread.join(throttlingTime);
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+		}
 		logger.debug("Invoking implementers defined tearDown");
 		try {
 			shutdown();
@@ -366,14 +905,228 @@ public abstract class PublisherBase implements MonitorPointSender {
 		if (!initialized) {
 			throw new IllegalStateException("Publishing monitor points before initialization");
 		}
-		monitorPoints.put(monitorPoint.id, monitorPoint);
 		monitorPointsSubmitted.incrementAndGet();
-		if (monitorPoints.size()>=maxBufferSize) {
+		BufferStripe stripe = stripeOf(monitorPoint.id);
+		boolean spill;
+		boolean dropOldest=false;
+		synchronized (stripe) {
+			BufferedValue bufferedValue = stripe.monitorPoints.get(monitorPoint.id);
+			if (bufferedValue!=null) {
+				// The newer value replaces the one in the buffer
+				bufferedValue.value=monitorPoint;
+				return;
+			}
+			if (numOfBufferedValues.incrementAndGet()>bufferCapacity) {
+				numOfOverflows.incrementAndGet(bufferOverflowPolicy.ordinal());
+				switch (bufferOverflowPolicy) {
+				case DROP_OLDEST:
+					// The new value is added and the oldest value discarded 
+					// after releasing the lock of the stripe
+					dropOldest=true;
+					break;
+				case SPILL:
+					if (numOfQueuedBufferMessages.get()<handOffQueueSize) {
+						// SPILL sends the values after adding the new one
+						break;
+					}
+					// The values in the buffer cannot be handed off to the I/O thread:
+					// the new value is discarded so that the buffer does not grow
+					numOfBufferedValues.decrementAndGet();
+					monitorPointsDiscarded.incrementAndGet();
+					return;
+				case COALESCE_LATEST:
+				case DROP_NEW:
+					numOfBufferedValues.decrementAndGet();
+					monitorPointsDiscarded.incrementAndGet();
+					return;
+				case BLOCK:
+					numOfBufferedValues.decrementAndGet();
+					if (!waitForRoomInBuffer(stripe, monitorPoint.id)) {
+						monitorPointsDiscarded.incrementAndGet();
+						return;
+					}
+					break;
+				default:
+					break;
+				}
+			}
+			bufferedValue = stripe.monitorPoints.get(monitorPoint.id);
+			if (bufferedValue!=null) {
+				// The value has been added by another thread while waiting for room
+				bufferedValue.value=monitorPoint;
+				numOfBufferedValues.decrementAndGet();
+			} else {
+				stripe.monitorPoints.put(monitorPoint.id, new BufferedValue(monitorPoint, bufferSequence.incrementAndGet()));
+			}
+			spill = bufferOverflowPolicy==OverflowPolicy.SPILL && numOfBufferedValues.get()>=bufferCapacity;
+		}
+		if (dropOldest) {
+			discardOldestValues();
+		}
+		if (spill) {
 			// Ops the buffer size reached the maximum allowed size: send the values to the core
 			sendMonitoredPointsToIas();
 		}
 	}
 	
+	/**
+	 * Discard the oldest values of the buffer until it contains no more then
+	 * {@link #bufferCapacity} values ({@link OverflowPolicy#DROP_OLDEST}).
+	 * <P>
+	 * The oldest value is the first value of the stripe whose first value 
+	 * has been added to the buffer before those of the other stripes ({@link BufferedValue#sequence}).
+	 * <BR>The stripes are locked one at a time to find the oldest value so this method 
+	 * must not be called while holding the lock of a stripe. 
+	 * If the oldest value is sent or discarded by another thread in the meantime, 
+	 * the stripes are scanned again.
+	 */
+	private void discardOldestValues() {
+		while (numOfBufferedValues.get()>bufferCapacity) {
+			BufferStripe oldestStripe = null;
+			long oldestSequence = Long.MAX_VALUE;
+			for (BufferStripe stripe: bufferStripes) {
+				synchronized (stripe) {
+					if (!stripe.monitorPoints.isEmpty()) {
+						long sequence = stripe.monitorPoints.values().iterator().next().sequence;
+						if (sequence<oldestSequence) {
+							oldestSequence=sequence;
+							oldestStripe=stripe;
+						}
+					}
+				}
+			}
+			if (oldestStripe==null) {
+				return;
+			}
+			synchronized (oldestStripe) {
+				Iterator<BufferedValue> iterator = oldestStripe.monitorPoints.values().iterator();
+				if (iterator.hasNext() && iterator.next().sequence==oldestSequence && numOfBufferedValues.get()>bufferCapacity) {
+					iterator.remove();
+					numOfBufferedValues.decrementAndGet();
+					monitorPointsDiscarded.incrementAndGet();
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Wait until there is room in the buffer for the value of the monitor point 
+	 * with the passed ID, or the {@link #overflowTimeout} elapses.
+	 * <P>
+	 * If there is room, the room for the value is reserved increasing the {@link #numOfBufferedValues}.
+	 * <BR>This method must be called while holding the lock of the stripe of the monitor point.
+	 * 
+	 * @param stripe The stripe of the buffer of the monitor point
+	 * @param id The ID of the monitor point
+	 * @return <code>true</code> if there is room in the buffer for the value;
+	 *         <code>false</code> if the timeout elapsed or the publisher has been stopped or closed
+	 */
+	private boolean waitForRoomInBuffer(BufferStripe stripe, String id) {
+		long deadline = System.currentTimeMillis()+overflowTimeout;
+		while (true) {
+			if (closed || stopped) {
+				return false;
+			}
+			if (numOfBufferedValues.incrementAndGet()<=bufferCapacity || stripe.monitorPoints.containsKey(id)) {
+				return true;
+			}
+			numOfBufferedValues.decrementAndGet();
+			long timeToWait = deadline-System.currentTimeMillis();
+			if (timeToWait<=0) {
+				return false;
+			}
+			try {
+				stripe.wait(timeToWait);
+			} catch (InterruptedException ie) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+		}
+	}
+	
+	/**
+	 * A new value has been produced by the monitored system that must be sent
+	 * without waiting for the throttling time interval: it is immediately 
+	 * handed off to the I/O thread.
+	 * <P>
+	 * A value of the same monitor point waiting in the buffer, being older, 
+	 * is discarded so that the values are not received out of order by the core. 
+	 * <P>
+	 * The value is added to the message of the values offered immediately
+	 * ({@link #immediateValues}) that is queued if not already in the queue.
+	 * If the message already contains {@link #bufferCapacity} values, the value is not discarded
+	 * but replaces the one of the same monitor point in the buffer (regardless of the 
+	 * {@link #bufferOverflowPolicy}) and is sent with the next message.
+	 * <BR>Only the short {@link #handOffLock} is held: the thread does not wait 
+	 * for the periodic sending of the values in the buffer.
+	 * 
+	 * @param monitorPoint The not <code>null</code> monitor point to be sent to the IAS
+	 * @see MonitorPointSender#offerImmediately(ValueToSend)
+	 * @throws IllegalStateException If the publisher has not been initialized before offering values
+	 */
+	@Override
+	public void offerImmediately(ValueToSend monitorPoint) {
+		Objects.requireNonNull(monitorPoint, "Cannot get a null value");
+		if (closed || stopped) {
+			return;
+		}
+		if (!initialized) {
+			throw new IllegalStateException("Publishing monitor points before initialization");
+		}
+		monitorPointsSubmitted.incrementAndGet();
+		BufferStripe stripe = stripeOf(monitorPoint.id);
+		synchronized (handOffLock) {
+			synchronized (stripe) {
+				if (immediateValues==null || immediateValues.size()<bufferCapacity) {
+					if (stripe.monitorPoints.remove(monitorPoint.id)!=null) {
+						numOfBufferedValues.decrementAndGet();
+						stripe.notifyAll();
+					}
+					if (immediateValues==null) {
+						immediateValues = new ArrayList<>();
+						handOffQueue.add(buildImmediateMessage(immediateValues));
+					}
+					immediateValues.add(monitorPoint);
+					return;
+				}
+				// The I/O thread is too slow: the value will be sent with the next message
+				BufferedValue bufferedValue = stripe.monitorPoints.get(monitorPoint.id);
+				if (bufferedValue!=null) {
+					bufferedValue.value=monitorPoint;
+				} else {
+					stripe.monitorPoints.put(monitorPoint.id, new BufferedValue(monitorPoint, bufferSequence.incrementAndGet()));
+					numOfBufferedValues.incrementAndGet();
+				}
+			}
+		}
+		numOfHandOffRejected.incrementAndGet();
+		logger.debug("Too many values waiting to be sent immediately: value of {} buffered to be sent with the next message",monitorPoint.id);
+	}
+	
+	/**
+	 * Build the message that sends the values offered immediately.
+	 * <P>
+	 * When the I/O thread runs the message, the list of values is closed
+	 * so that no other value is added to it while sending.
+	 * 
+	 * @param values The list of the values offered immediately ({@link #immediateValues})
+	 * @return the message to hand off to the I/O thread
+	 */
+	private Runnable buildImmediateMessage(final List<ValueToSend> values) {
+		return new Runnable() {
+			@Override
+			public void run() {
+				synchronized (handOffLock) {
+					if (immediateValues==values) {
+						immediateValues=null;
+					}
+				}
+				// The list is not modified after being closed
+				buildMessage(values).run();
+			}
+		};
+	}
+	
 	/**
 	 * Return the statistics collected during the last time interval
 	 * 
@@ -386,7 +1139,18 @@ public abstract class PublisherBase implements MonitorPointSender {
 				monitorPointsSent.getAndSet(0L),
 				monitorPointsSubmitted.getAndSet(0L), 
 				bytesSent.getAndSet(0L),
-				numOfErrorsSending.getAndSet(0));
+				numOfErrorsSending.getAndSet(0),
+				monitorPointsDiscarded.getAndSet(0L));
+		long rejected = numOfHandOffRejected.getAndSet(0L);
+		if (rejected>0) {
+			logger.warn("The queue of the I/O thread has been full {} times in the last time interval",rejected);
+		}
+		for (OverflowPolicy policy: OverflowPolicy.values()) {
+			long overflows = numOfOverflows.getAndSet(policy.ordinal(), 0L);
+			if (overflows>0) {
+				logger.warn("The buffer has been full {} times in the last time interval: {} policy applied",overflows,policy);
+			}
+		}
 		return ret;
 	}
 
@@ -408,7 +1172,13 @@ public abstract class PublisherBase implements MonitorPointSender {
 	@Override
 	public void stopSending() {
 		stopped=true;
-		monitorPoints.clear();
+		for (BufferStripe stripe: bufferStripes) {
+			synchronized (stripe) {
+				numOfBufferedValues.addAndGet(-stripe.monitorPoints.size());
+				stripe.monitorPoints.clear();
+				stripe.notifyAll();
+			}
+		}
 		logger.info("Sending of monitor points to the IAS has been stooped");
 	}
 
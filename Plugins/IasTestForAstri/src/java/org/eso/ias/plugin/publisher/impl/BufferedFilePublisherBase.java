@@ -52,6 +52,26 @@ public abstract class BufferedFilePublisherBase extends BufferedPublisherBase {
 		this.outWriter=outWriter;
 	}
 	
+	/**
+	 * Constructor: the values are sent by a thread owned by this object
+	 * 
+	 * @param pluginId The identifier of the plugin
+	 * @param monitoredSystemId The identifier of the system monitored by the plugin
+	 * @param serverName The name of the server
+	 * @param port The port of the server
+	 * @param outWriter The output writer
+	 */
+	public BufferedFilePublisherBase(
+			String pluginId,
+			String monitoredSystemId,
+			String serverName, 
+			int port, 
+			BufferedWriter outWriter) {
+		super(pluginId, monitoredSystemId, serverName, port);
+		Objects.requireNonNull(outWriter,"The output stream can't be null");
+		this.outWriter=outWriter;
+	}
+	
 	/**
 	 * Builds the string to be written in the file.
 	 * <P>
@@ -0,0 +1,239 @@
+package org.eso.ias.plugin.publisher.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.eso.ias.plugin.publisher.BufferedMonitoredSystemData;
+import org.eso.ias.plugin.publisher.BufferedPublisherBase;
+import org.eso.ias.plugin.publisher.MonitorPointDataToBuffer;
+import org.eso.ias.plugin.publisher.PublisherException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The publisher of monitor point values through Kafka in batches.
+ * <P>
+ * Differently from the {@link KafkaPublisher} that sends a record for each
+ * monitor point value, <code>BufferedKafkaPublisher</code> sends all the values
+ * collected in the throttling time interval in a record with one
+ * {@link BufferedMonitoredSystemData} so that the IDs of the plugin and of the monitored system
+ * and the publish time are sent only once.
+ * <P>
+ * A batch with more than {@link #maxPointsPerBatch} monitor points
+ * or whose JSON string is longer than {@link #maxBytesPerBatch} bytes
+ * is split and sent in more records: the max number of bytes must be less then
+ * the max size of the requests of the kafka producer (<code>max.request.size</code>).
+ * <P>
+ * The records are published in their own topic ({@link #batchTopicName}), not in the topic
+ * of the {@link KafkaPublisher}: the consumers of the IAS read one {@link org.eso.ias.plugin.publisher.MonitorPointData}
+ * per record and cannot decode the batches. Consumers of the batch topic must understand the 
+ * {@link BufferedMonitoredSystemData} format.
+ * <P>
+ * The kafka producer and the partition are configured
+ * as for the {@link KafkaPublisher} and the records are sent asynchronously in the same way.
+ *
+ * @author acaproni
+ *
+ */
+public class BufferedKafkaPublisher extends BufferedPublisherBase {
+
+	/**
+	 * The logger
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(BufferedKafkaPublisher.class);
+
+	/**
+	 * The name of the java property to set the kafka topic of the batches.
+	 * <P>
+	 * If not set, {@link #defaultBatchTopicName} is used.
+	 */
+	public static final String KAFKA_BATCH_TOPIC_PROP_NAME = "org.eso.ias.plugin.kafka.batch.topic";
+
+	/**
+	 * The default topic of the batches, different from the {@link KafkaPublisher#defaultTopicName}
+	 * because the records have a different format
+	 */
+	public static final String defaultBatchTopicName="PluginsBatchKTopic";
+
+	/**
+	 * The topic of the batches red from the passed property if exists, or the default.
+	 */
+	public static final String batchTopicName = System.getProperty(KAFKA_BATCH_TOPIC_PROP_NAME)==null?defaultBatchTopicName:System.getProperty(KAFKA_BATCH_TOPIC_PROP_NAME);
+
+	/**
+	 * The name of the property to set the max number of monitor points sent in a record
+	 */
+	public static final String MAX_POINTS_PER_BATCH_PROP_NAME = "org.eso.ias.plugin.kafka.batch.maxpoints";
+
+	/**
+	 * The default max number of monitor points sent in a record
+	 */
+	public static final int defaultMaxPointsPerBatch = 1000;
+
+	/**
+	 * The max number of monitor points sent in a record
+	 */
+	public static final int maxPointsPerBatch = Integer.getInteger(MAX_POINTS_PER_BATCH_PROP_NAME,defaultMaxPointsPerBatch)<=0 ?
+			defaultMaxPointsPerBatch : Integer.getInteger(MAX_POINTS_PER_BATCH_PROP_NAME,defaultMaxPointsPerBatch);
+
+	/**
+	 * The name of the property to set the max number of bytes sent in a record
+	 */
+	public static final String MAX_BYTES_PER_BATCH_PROP_NAME = "org.eso.ias.plugin.kafka.batch.maxbytes";
+
+	/**
+	 * The default max number of bytes sent in a record,
+	 * less then the default <code>max.request.size</code> of the kafka producer (1MB)
+	 */
+	public static final int defaultMaxBytesPerBatch = 900000;
+
+	/**
+	 * The max number of bytes sent in a record.
+	 * <P>
+	 * A record with only one monitor point is sent even if it is longer.
+	 */
+	public static final int maxBytesPerBatch = Integer.getInteger(MAX_BYTES_PER_BATCH_PROP_NAME,defaultMaxBytesPerBatch)<=0 ?
+			defaultMaxBytesPerBatch : Integer.getInteger(MAX_BYTES_PER_BATCH_PROP_NAME,defaultMaxBytesPerBatch);
+
+	/**
+	 * The partition or <code>null</code> to use the ID
+	 * of the plugin to get the partition
+	 *
+	 * @see KafkaPublisher#KAFKA_PARTITION_PROP_NAME
+	 */
+	private Integer partition=null;
+
+	/**
+	 * The kafka producer
+	 */
+	private Producer<String, String> producer = null;
+
+	/**
+	 * Collects the outcome of the records sent asynchronously
+	 */
+	private final KafkaSendMonitor sendMonitor = new KafkaSendMonitor(bytesSent::addAndGet, this::notifyPublishingError);
+
+	/**
+	 * Constructor
+	 *
+	 * @param pluginId The identifier of the plugin
+	 * @param monitoredSystemId The identifier of the system monitored by the plugin
+	 * @param serverName The name of the server
+	 * @param port The port of the server
+	 * @param executorSvc The executor service
+	 */
+	public BufferedKafkaPublisher(
+			String pluginId,
+			String monitoredSystemId,
+			String serverName,
+			int port,
+			ScheduledExecutorService executorSvc) {
+		super(pluginId, monitoredSystemId, serverName, port, executorSvc);
+	}
+
+	/**
+	 * Constructor: the values are sent by a thread owned by this object
+	 *
+	 * @param pluginId The identifier of the plugin
+	 * @param monitoredSystemId The identifier of the system monitored by the plugin
+	 * @param serverName The name of the server
+	 * @param port The port of the server
+	 */
+	public BufferedKafkaPublisher(
+			String pluginId,
+			String monitoredSystemId,
+			String serverName,
+			int port) {
+		super(pluginId, monitoredSystemId, serverName, port);
+	}
+
+	/**
+	 * Push the monitor point values in the kafka topic and partition,
+	 * splitting them in more records if they do not fit in one batch.
+	 *
+	 * @return 0: the bytes sent are accounted when kafka acknowledges the records
+	 */
+	@Override
+	protected long publish(BufferedMonitoredSystemData data) throws PublisherException {
+		List<MonitorPointDataToBuffer> monitorPoints = new ArrayList<>(data.getMonitorPoints());
+		int recordsSent=0;
+		for (int from=0; from<monitorPoints.size(); from+=maxPointsPerBatch) {
+			int to = Math.min(from+maxPointsPerBatch, monitorPoints.size());
+			recordsSent+=publishBatch(data, monitorPoints.subList(from, to));
+		}
+		if (recordsSent>1) {
+			// BufferedPublisherBase accounts one message for each publish
+			publishedMessages.addAndGet(recordsSent-1);
+			logger.debug("{} monitor points sent in {} records",monitorPoints.size(),recordsSent);
+		}
+		return 0L;
+	}
+
+	/**
+	 * Send the passed monitor points in a record or, if the JSON string is longer
+	 * than {@link #maxBytesPerBatch}, split them in 2 halves and send each one of them.
+	 *
+	 * @param data The data with the IDs and the publish time of the batch
+	 * @param monitorPoints The not empty monitor points to send
+	 * @return The number of records sent
+	 * @throws PublisherException In case of error generating the JSON string or sending the records
+	 */
+	private int publishBatch(BufferedMonitoredSystemData data, List<MonitorPointDataToBuffer> monitorPoints) throws PublisherException {
+		BufferedMonitoredSystemData batch = new BufferedMonitoredSystemData();
+		batch.setSystemID(data.getSystemID());
+		batch.setMonitoredSystemID(data.getMonitoredSystemID());
+		batch.setPublishTime(data.getPublishTime());
+		batch.setMonitorPoints(monitorPoints);
+		String jsonStrToSend = batch.toJsonString();
+		if (monitorPoints.size()>1 && jsonStrToSend.getBytes(StandardCharsets.UTF_8).length>maxBytesPerBatch) {
+			int half = monitorPoints.size()/2;
+			return publishBatch(data, monitorPoints.subList(0, half))+
+					publishBatch(data, monitorPoints.subList(half, monitorPoints.size()));
+		}
+		// The partition is explicitly set: the passed key will not used
+		// for partitioning in the topic
+		ProducerRecord<String, String> record = new ProducerRecord<String, String>(batchTopicName, partition,pluginId,jsonStrToSend);
+		try {
+			producer.send(record, sendMonitor.newCallback());
+		} catch (RuntimeException e) {
+			throw new PublisherException("Error sending a record to kafka", e);
+		}
+		return 1;
+	}
+
+	/**
+	 * Logs the latency of the records acknowledged by kafka
+	 * in the last time interval.
+	 *
+	 * @see org.eso.ias.plugin.publisher.PublisherBase#getStats()
+	 */
+	@Override
+	public SenderStats getStats() {
+		sendMonitor.logAndResetStats();
+		return super.getStats();
+	}
+
+	/**
+	 * Initializes the kafka producer
+	 */
+	@Override
+	protected void start() throws PublisherException {
+		producer = KafkaPublisherSupport.buildProducer(pluginId, serverName, serverPort, batchTopicName, this::mergeProperties);
+		partition = KafkaPublisherSupport.getPartition(pluginId);
+		logger.info("Up to {} monitor points and {} bytes per record",maxPointsPerBatch,maxBytesPerBatch);
+	}
+
+	/**
+	 * Close the kafka producer
+	 */
+	@Override
+	protected void shutdown() throws PublisherException {
+		if (producer!=null) {
+			producer.close();
+		}
+	}
+}
@@ -29,6 +29,19 @@ public class FilePublisher extends BufferedFilePublisherBase {
 	public FilePublisher(String pluginId, String monitoredSystemId,String serverName, int port, ScheduledExecutorService executorSvc, BufferedWriter outWriter) {
 		super(pluginId, monitoredSystemId,serverName, port, executorSvc,outWriter);
 	}
+	
+	/**
+	 * Constructor: the values are sent by a thread owned by this object
+	 * 
+	 * @param pluginId The identifier of the plugin
+	 * @param monitoredSystemId The identifier of the system monitored by the plugin
+	 * @param serverName The name of the server
+	 * @param port The port of the server
+	 * @param outWriter The output writer
+	 */
+	public FilePublisher(String pluginId, String monitoredSystemId,String serverName, int port, BufferedWriter outWriter) {
+		super(pluginId, monitoredSystemId,serverName, port,outWriter);
+	}
 
 	/**
 	 * Build and return a string representing the data
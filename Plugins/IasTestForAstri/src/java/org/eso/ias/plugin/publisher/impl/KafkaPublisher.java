@@ -1,17 +1,9 @@
 package org.eso.ias.plugin.publisher.impl;
 
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.util.List;
-import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 
-import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerRecord;
-import org.apache.kafka.clients.producer.RecordMetadata;
-import org.apache.kafka.common.PartitionInfo;
 import org.eso.ias.plugin.publisher.MonitorPointData;
 import org.eso.ias.plugin.publisher.PublisherBase;
 import org.eso.ias.plugin.publisher.PublisherException;
@@ -23,6 +15,12 @@ import org.slf4j.LoggerFactory;
  * <P>
  * <code>KafkaPublisher</code> is an unbuffered publisher because 
  * Kafka already does its own buffering and optimizations.
+ * Plugins with many monitor points can use the {@link BufferedKafkaPublisher}
+ * that sends all the values of a throttling time interval in one record
+ * of its own topic, provided that the consumers of that topic understand the batches.
+ * <P>
+ * The records are sent asynchronously: the bytes sent, the latency and the errors 
+ * are collected when kafka acknowledges the records ({@link KafkaSendMonitor}).
  * <P>
  * Kafka topic is hardcoded in {@link #defaultTopicName} property
  * 
@@ -81,6 +79,11 @@ public class KafkaPublisher extends PublisherBase {
 	 */
 	private Producer<String, String> producer = null;
 	
+	/**
+	 * Collects the outcome of the records sent asynchronously
+	 */
+	private final KafkaSendMonitor sendMonitor = new KafkaSendMonitor(bytesSent::addAndGet, this::notifyPublishingError);
+	
 	/**
 	 * Constructor
 	 * 
@@ -99,9 +102,27 @@ public class KafkaPublisher extends PublisherBase {
 			ScheduledExecutorService executorSvc) {
 		super(pluginId, monitoredSystemId, serverName, port, executorSvc);
 	}
+	
+	/**
+	 * Constructor: the values are sent by a thread owned by this object
+	 * 
+	 * @param pluginId The identifier of the plugin
+	 * @param monitoredSystemId The identifier of the system monitored by the plugin
+	 * @param serverName The name of the server
+	 * @param port The port of the server
+	 */
+	public KafkaPublisher(
+			String pluginId,
+			String monitoredSystemId,
+			String serverName, 
+			int port) {
+		super(pluginId, monitoredSystemId, serverName, port);
+	}
 
 	/**
 	 * Push a monitor point values in the kafka topic and partition.
+	 * 
+	 * @return 0: the bytes sent are accounted when kafka acknowledges the record
 	 */
 	@Override
 	protected long publish(MonitorPointData mpData) throws PublisherException {
@@ -109,9 +130,24 @@ public class KafkaPublisher extends PublisherBase {
 		// The partition is explicitly set: the passed key will not used
 		// for partitioning in the topic
 		ProducerRecord<String, String> record = new ProducerRecord<String, String>(topicName, partition,pluginId,jsonStrToSend);
-		Future<RecordMetadata> future = producer.send(record);
-		
-		return jsonStrToSend.length();
+		try {
+			producer.send(record, sendMonitor.newCallback());
+		} catch (RuntimeException e) {
+			throw new PublisherException("Error sending a record to kafka", e);
+		}
+		return 0L;
+	}
+	
+	/**
+	 * Logs the latency of the records acknowledged by kafka
+	 * in the last time interval.
+	 * 
+	 * @see PublisherBase#getStats()
+	 */
+	@Override
+	public SenderStats getStats() {
+		sendMonitor.logAndResetStats();
+		return super.getStats();
 	}
 
 	/**
@@ -119,55 +155,8 @@ public class KafkaPublisher extends PublisherBase {
 	 */
 	@Override
 	protected void start() throws PublisherException {
-		
-		// Is there a user defined properties file?
-		String userKafkaPropFilePath = System.getProperty(KAFKA_CONFIG_FILE_PROP_NAME);
-		InputStream userInStream = null;
-		if (userKafkaPropFilePath!=null){
-			try {
-				userInStream=new FileInputStream(userKafkaPropFilePath);
-			} catch (IOException ioe) {
-				throw new PublisherException("Cannot open the user defined file of properties",ioe);
-			}
-		}
-		
-		try (InputStream defaultInStream = KafkaPublisher.class.getResourceAsStream(KAFKA_CONFIG_FILE_DEFAULT_PATH)){
-			mergeProperties(defaultInStream, userInStream);
-		} catch (IOException ioe) {
-			throw new PublisherException("Cannot open the default input file of properties",ioe);
-		} catch (PublisherException pe) {
-			throw new PublisherException("Cannot merge properties",pe);
-		} finally {
-			if (userInStream!=null) try {
-				userInStream.close();
-			} catch (IOException ioe) {
-				throw new PublisherException("Error closing the user defined file of properties",ioe);
-			}
-		}
-		
-		// Force the hardcoded properties
-		System.getProperties().put("bootstrap.servers", serverName+":"+serverPort);
-		System.getProperties().put("client.id",pluginId);
-		System.getProperties().put("key.serializer", "org.apache.kafka.common.serialization.StringSerializer");
-		System.getProperties().put("value.serializer", "org.apache.kafka.common.serialization.StringSerializer");
-		
-		// Is there a partition number in the java properties? 
-		partition = Integer.getInteger(KAFKA_PARTITION_PROP_NAME);
-		if (partition==null) {
-			logger.info("No kafka partition given: will use the ID {} of the plugin to get the partition",pluginId);
-		} else if (partition<0) {
-			logger.warn("Invalid Kafka partition number {}: will use the ID {} of the plugin as key to get the partition",
-					partition,
-					pluginId);
-			partition=null;
-		} else {
-			logger.info("Will use kafka partition {}",partition);
-		}
-		logger.info("Will use kafka topic {}",topicName);
-		producer = new KafkaProducer<>(System.getProperties());	
-		logger.info("Kafka producer initialized");
-		
-		logsInfo();
+		producer = KafkaPublisherSupport.buildProducer(pluginId, serverName, serverPort, topicName, this::mergeProperties);
+		partition = KafkaPublisherSupport.getPartition(pluginId);
 	}
 
 	/**
@@ -179,14 +168,5 @@ public class KafkaPublisher extends PublisherBase {
 			producer.close();
 		}
 	}
-	
-	/**
-	 * Issue some logs about kafka topic that can be useful for debugging
-	 */
-	private void logsInfo() {
-		List<PartitionInfo> partitions = producer.partitionsFor(topicName);
-		logger.info("Kafka topic {} has {} partitions",topicName,partitions.size());
-		partitions.forEach(p -> logger.debug(p.toString()) );
-	}
 
 }
@@ -0,0 +1,148 @@
+package org.eso.ias.plugin.publisher.impl;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.common.PartitionInfo;
+import org.eso.ias.plugin.publisher.PublisherException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The initialization of the kafka producer shared by the
+ * {@link KafkaPublisher} and the {@link BufferedKafkaPublisher}.
+ * <P>
+ * The properties of the producer are those of the configuration files
+ * ({@link KafkaPublisher#KAFKA_CONFIG_FILE_DEFAULT_PATH} and the file
+ * in the {@value KafkaPublisher#KAFKA_CONFIG_FILE_PROP_NAME} property)
+ * merged in the java properties.
+ *
+ * @author acaproni
+ *
+ */
+final class KafkaPublisherSupport {
+
+	/**
+	 * Merges the default and user provided properties in the system properties
+	 *
+	 * @see org.eso.ias.plugin.publisher.PublisherBase#mergeProperties(InputStream, InputStream)
+	 * @author acaproni
+	 */
+	interface PropertiesMerger {
+
+		/**
+		 * Merges the default and user provided properties in the system properties
+		 *
+		 * @param defaultStream: The stream to load default properties
+		 * @param  userStream: The stream to load user properties
+		 * @throws PublisherException In case of error merging the properties
+		 */
+		void mergeProperties(InputStream defaultStream, InputStream userStream) throws PublisherException;
+	}
+
+	/**
+	 * The logger
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(KafkaPublisherSupport.class);
+
+	/**
+	 * Private constructor to avoid instantiation
+	 */
+	private KafkaPublisherSupport() {}
+
+	/**
+	 * Build the kafka producer
+	 *
+	 * @param pluginId The identifier of the plugin
+	 * @param serverName The name of the kafka server
+	 * @param serverPort The port of the kafka server
+	 * @param topic The kafka topic where the records are published
+	 * @param merger The merger of the properties of the configuration files
+	 * @return the kafka producer
+	 * @throws PublisherException In case of error reading the configuration files
+	 */
+	static Producer<String, String> buildProducer(
+			String pluginId,
+			String serverName,
+			int serverPort,
+			String topic,
+			PropertiesMerger merger) throws PublisherException {
+		// Is there a user defined properties file?
+		String userKafkaPropFilePath = System.getProperty(KafkaPublisher.KAFKA_CONFIG_FILE_PROP_NAME);
+		InputStream userInStream = null;
+		if (userKafkaPropFilePath!=null){
+			try {
+				userInStream=new FileInputStream(userKafkaPropFilePath);
+			} catch (IOException ioe) {
+				throw new PublisherException("Cannot open the user defined file of properties",ioe);
+			}
+		}
+
+		try (InputStream defaultInStream = KafkaPublisher.class.getResourceAsStream(KafkaPublisher.KAFKA_CONFIG_FILE_DEFAULT_PATH)){
+			merger.mergeProperties(defaultInStream, userInStream);
+		} catch (IOException ioe) {
+			throw new PublisherException("Cannot open the default input file of properties",ioe);
+		} catch (PublisherException pe) {
+			throw new PublisherException("Cannot merge properties",pe);
+		} finally {
+			if (userInStream!=null) try {
+				userInStream.close();
+			} catch (IOException ioe) {
+				throw new PublisherException("Error closing the user defined file of properties",ioe);
+			}
+		}
+
+		// Force the hardcoded properties
+		System.getProperties().put("bootstrap.servers", serverName+":"+serverPort);
+		System.getProperties().put("client.id",pluginId);
+		System.getProperties().put("key.serializer", "org.apache.kafka.common.serialization.StringSerializer");
+		System.getProperties().put("value.serializer", "org.apache.kafka.common.serialization.StringSerializer");
+
+		logger.info("Will use kafka topic {}",topic);
+		Producer<String, String> producer = new KafkaProducer<>(System.getProperties());
+		logger.info("Kafka producer initialized");
+
+		logsInfo(producer, topic);
+		return producer;
+	}
+
+	/**
+	 * Get the partition from the {@value KafkaPublisher#KAFKA_PARTITION_PROP_NAME}
+	 * java property.
+	 *
+	 * @param pluginId The identifier of the plugin
+	 * @return the partition or <code>null</code> if the partition is not set or invalid
+	 *         (in this case the ID of the plugin is used as key to get the partition)
+	 */
+	static Integer getPartition(String pluginId) {
+		// Is there a partition number in the java properties?
+		Integer partition = Integer.getInteger(KafkaPublisher.KAFKA_PARTITION_PROP_NAME);
+		if (partition==null) {
+			logger.info("No kafka partition given: will use the ID {} of the plugin to get the partition",pluginId);
+		} else if (partition<0) {
+			logger.warn("Invalid Kafka partition number {}: will use the ID {} of the plugin as key to get the partition",
+					partition,
+					pluginId);
+			partition=null;
+		} else {
+			logger.info("Will use kafka partition {}",partition);
+		}
+		return partition;
+	}
+
+	/**
+	 * Issue some logs about kafka topic that can be useful for debugging
+	 *
+	 * @param producer The kafka producer
+	 * @param topic The kafka topic
+	 */
+	private static void logsInfo(Producer<String, String> producer, String topic) {
+		List<PartitionInfo> partitions = producer.partitionsFor(topic);
+		logger.info("Kafka topic {} has {} partitions",topic,partitions.size());
+		partitions.forEach(p -> logger.debug(p.toString()) );
+	}
+}
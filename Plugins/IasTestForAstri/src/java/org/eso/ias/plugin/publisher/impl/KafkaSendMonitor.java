@@ -0,0 +1,116 @@
+package org.eso.ias.plugin.publisher.impl;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.eso.ias.plugin.publisher.PublisherException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The outcome of the records sent asynchronously by the kafka publishers
+ * ({@link KafkaPublisher} and {@link BufferedKafkaPublisher}).
+ * <P>
+ * The callback of each record sent ({@link #newCallback()}) is executed
+ * by the I/O thread of the kafka producer when the record has been acknowledged
+ * by the server or the sending failed:
+ * <UL>
+ * 	<LI>the serialized bytes of the key and the value of the acknowledged records are passed
+ *      to the {@link #bytesSentConsumer} and the latency of the sending
+ *      (i.e. the time elapsed between the sending and the acknowledgement) is collected
+ * 	<LI>the errors are passed to the {@link #errorConsumer}
+ * </UL>
+ *
+ * @author acaproni
+ *
+ */
+final class KafkaSendMonitor {
+
+	/**
+	 * The logger
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(KafkaSendMonitor.class);
+
+	/**
+	 * The consumer of the number of bytes of the acknowledged records
+	 */
+	private final LongConsumer bytesSentConsumer;
+
+	/**
+	 * The consumer of the errors sending the records
+	 */
+	private final Consumer<PublisherException> errorConsumer;
+
+	/**
+	 * The number of records acknowledged by the server
+	 */
+	private final AtomicLong numOfAcks = new AtomicLong(0);
+
+	/**
+	 * The sum of the latencies (nsec) of the acknowledged records
+	 */
+	private final AtomicLong totalLatency = new AtomicLong(0);
+
+	/**
+	 * The max latency (nsec) of the acknowledged records
+	 */
+	private final AtomicLong maxLatency = new AtomicLong(0);
+
+	/**
+	 * Constructor
+	 *
+	 * @param bytesSentConsumer The consumer of the number of bytes of the acknowledged records
+	 * @param errorConsumer The consumer of the errors sending the records
+	 */
+	KafkaSendMonitor(LongConsumer bytesSentConsumer, Consumer<PublisherException> errorConsumer) {
+		Objects.requireNonNull(bytesSentConsumer);
+		Objects.requireNonNull(errorConsumer);
+		this.bytesSentConsumer=bytesSentConsumer;
+		this.errorConsumer=errorConsumer;
+	}
+
+	/**
+	 * Build the callback of a record sent now
+	 *
+	 * @return the callback to pass to the kafka producer
+	 */
+	Callback newCallback() {
+		final long sendTime = System.nanoTime();
+		return new Callback() {
+			@Override
+			public void onCompletion(RecordMetadata metadata, Exception exception) {
+				if (exception!=null) {
+					errorConsumer.accept(new PublisherException("Error sending a record to kafka", exception));
+					return;
+				}
+				long latency = System.nanoTime()-sendTime;
+				numOfAcks.incrementAndGet();
+				totalLatency.addAndGet(latency);
+				maxLatency.accumulateAndGet(latency, Math::max);
+				// The sizes are -1 if the key or the value are null
+				bytesSentConsumer.accept(Math.max(metadata.serializedKeySize(),0)+Math.max(metadata.serializedValueSize(),0));
+			}
+		};
+	}
+
+	/**
+	 * Log the number and the latency of the records acknowledged after the previous invocation
+	 * of this method, and reset the counters
+	 */
+	void logAndResetStats() {
+		long acks = numOfAcks.getAndSet(0L);
+		long latency = totalLatency.getAndSet(0L);
+		long max = maxLatency.getAndSet(0L);
+		if (acks>0) {
+			logger.info("{} records acknowledged by kafka in the last time interval with an average latency of {} msec (max {} msec)",
+					acks,
+					TimeUnit.NANOSECONDS.toMillis(latency/acks),
+					TimeUnit.NANOSECONDS.toMillis(max));
+		}
+	}
+}
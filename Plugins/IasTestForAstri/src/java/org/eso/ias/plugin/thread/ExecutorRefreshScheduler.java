@@ -0,0 +1,60 @@
+package org.eso.ias.plugin.thread;
+
+import java.util.Objects;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link RefreshScheduler} that delegates the scheduling
+ * to a {@link ScheduledExecutorService}.
+ * <P>
+ * Each scheduled task is an entry in the queue of the executor
+ * so inserting and cancelling a task costs O(log n).
+ * <P>
+ * The executor is not owned by this object: {@link #shutdown()} does nothing.
+ *
+ * @author acaproni
+ *
+ */
+public class ExecutorRefreshScheduler implements RefreshScheduler {
+
+	/**
+	 * The executor to delegate the scheduling to
+	 */
+	private final ScheduledExecutorService executorSvc;
+
+	/**
+	 * Constructor
+	 *
+	 * @param executorSvc The not <code>null</code> executor to delegate the scheduling to
+	 */
+	public ExecutorRefreshScheduler(ScheduledExecutorService executorSvc) {
+		Objects.requireNonNull(executorSvc,"The executor service can't be null");
+		this.executorSvc=executorSvc;
+	}
+
+	/**
+	 * @see RefreshScheduler#scheduleAtFixedRate(Runnable, long, long, TimeUnit)
+	 */
+	@Override
+	public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+		return executorSvc.scheduleAtFixedRate(task, initialDelay, period, unit);
+	}
+
+	/**
+	 * @see RefreshScheduler#schedule(Runnable, long, TimeUnit)
+	 */
+	@Override
+	public ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+		return executorSvc.schedule(task, delay, unit);
+	}
+
+	/**
+	 * The executor is not owned by this object and is not shut down
+	 *
+	 * @see RefreshScheduler#shutdown()
+	 */
+	@Override
+	public void shutdown() {}
+}
@@ -0,0 +1,475 @@
+package org.eso.ias.plugin.thread;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link RefreshScheduler} implemented with a hashed timer wheel.
+ * <P>
+ * The wheel is an array of buckets, each bucket being a doubly linked list of
+ * scheduled tasks. A dedicated thread advances the wheel of one bucket every
+ * {@link #tickDuration} and runs the tasks of the bucket whose deadline elapsed.
+ * Tasks whose deadline is farther then one revolution of the wheel
+ * stay in the bucket for as many revolutions as needed.
+ * <P>
+ * Scheduling, cancelling and expiring a task cost O(1) regardless of the number
+ * of scheduled tasks, at the price of a precision limited by {@link #tickDuration}:
+ * a task runs at the latest one tick after its deadline.
+ * <P>
+ * Expired tasks are not run by the thread of the wheel but submitted
+ * to the executor passed in the constructor so that a slow task does not delay the
+ * others.
+ *
+ * @author acaproni
+ *
+ */
+public class HashedWheelTimer implements RefreshScheduler {
+
+	/**
+	 * The logger
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(HashedWheelTimer.class);
+
+	/**
+	 * A task scheduled in the wheel.
+	 * <P>
+	 * All the fields used to link the timeout in the bucket are guarded by
+	 * the lock of the {@link HashedWheelTimer#wheel}.
+	 *
+	 * @author acaproni
+	 *
+	 */
+	private class Timeout implements ScheduledFuture<Void>, Runnable {
+
+		/**
+		 * The task to run
+		 */
+		private final Runnable task;
+
+		/**
+		 * The period (nsec) of a periodic task, 0 if the task
+		 * must run only once
+		 */
+		private final long period;
+
+		/**
+		 * The deadline (nsec) relative to {@link HashedWheelTimer#startTime}
+		 */
+		private volatile long deadline;
+
+		/**
+		 * The number of revolutions of the wheel before the task expires
+		 */
+		private long remainingRounds;
+
+		/**
+		 * The bucket containing this timeout, <code>null</code>
+		 * if not in the wheel
+		 */
+		private Bucket bucket=null;
+
+		/**
+		 * The previous timeout in the bucket
+		 */
+		private Timeout prev=null;
+
+		/**
+		 * The next timeout in the bucket
+		 */
+		private Timeout next=null;
+
+		/**
+		 * Set when the task has been cancelled
+		 */
+		private volatile boolean cancelled=false;
+
+		/**
+		 * Released when the task is cancelled or, if not periodic, executed
+		 */
+		private final CountDownLatch done = new CountDownLatch(1);
+
+		/**
+		 * Constructor
+		 *
+		 * @param task The task to run
+		 * @param deadline The deadline relative to {@link HashedWheelTimer#startTime}
+		 * @param period The period of a periodic task, 0 otherwise
+		 */
+		public Timeout(Runnable task, long deadline, long period) {
+			this.task=task;
+			this.deadline=deadline;
+			this.period=period;
+		}
+
+		/**
+		 * Run the task: it is executed by the executor when the deadline elapses.
+		 * <P>
+		 * Like {@link java.util.concurrent.ScheduledExecutorService}, if a periodic task
+		 * throws an exception, it is not run again.
+		 */
+		@Override
+		public void run() {
+			if (cancelled) {
+				return;
+			}
+			try {
+				task.run();
+			} catch (Throwable t) {
+				logger.error("Scheduled task terminated with error: will not run again",t);
+				cancel(false);
+				return;
+			}
+			if (period==0) {
+				done.countDown();
+			}
+		}
+
+		@Override
+		public long getDelay(TimeUnit unit) {
+			return unit.convert(deadline-(System.nanoTime()-startTime), TimeUnit.NANOSECONDS);
+		}
+
+		@Override
+		public int compareTo(Delayed o) {
+			return Long.compare(getDelay(TimeUnit.NANOSECONDS), o.getDelay(TimeUnit.NANOSECONDS));
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			synchronized (wheel) {
+				if (isDone()) {
+					return false;
+				}
+				if (bucket!=null) {
+					bucket.remove(this);
+				}
+				cancelled=true;
+			}
+			done.countDown();
+			return true;
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return cancelled;
+		}
+
+		@Override
+		public boolean isDone() {
+			return done.getCount()==0;
+		}
+
+		@Override
+		public Void get() throws InterruptedException {
+			done.await();
+			if (cancelled) {
+				throw new CancellationException();
+			}
+			return null;
+		}
+
+		@Override
+		public Void get(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException {
+			if (!done.await(timeout, unit)) {
+				throw new TimeoutException();
+			}
+			if (cancelled) {
+				throw new CancellationException();
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * A bucket of the wheel: a doubly linked list of {@link Timeout}.
+	 * <P>
+	 * Access is guarded by the lock of the {@link HashedWheelTimer#wheel}.
+	 *
+	 * @author acaproni
+	 *
+	 */
+	private static class Bucket {
+
+		/**
+		 * The head of the list
+		 */
+		private Timeout head=null;
+
+		/**
+		 * Add the timeout at the head of the list
+		 *
+		 * @param timeout The timeout to add
+		 */
+		public void add(Timeout timeout) {
+			timeout.bucket=this;
+			timeout.prev=null;
+			timeout.next=head;
+			if (head!=null) {
+				head.prev=timeout;
+			}
+			head=timeout;
+		}
+
+		/**
+		 * Remove the timeout from the list
+		 *
+		 * @param timeout The timeout to remove
+		 */
+		public void remove(Timeout timeout) {
+			if (timeout.prev!=null) {
+				timeout.prev.next=timeout.next;
+			} else {
+				head=timeout.next;
+			}
+			if (timeout.next!=null) {
+				timeout.next.prev=timeout.prev;
+			}
+			timeout.bucket=null;
+			timeout.prev=null;
+			timeout.next=null;
+		}
+	}
+
+	/**
+	 * The default duration (msec) of a tick
+	 */
+	public static final long defaultTickDuration = 10;
+
+	/**
+	 * The default number of buckets in the wheel
+	 */
+	public static final int defaultWheelSize = 512;
+
+	/**
+	 * The duration (msec) of a tick of the wheel
+	 */
+	public final long tickDuration;
+
+	/**
+	 * The duration of a tick of the wheel in nanoseconds
+	 */
+	private final long tickNanos;
+
+	/**
+	 * The buckets of the wheel.
+	 * <P>
+	 * The lock of the array guards all the buckets and the
+	 * timeouts they contain.
+	 */
+	private final Bucket[] wheel;
+
+	/**
+	 * The mask to get the bucket of a tick
+	 */
+	private final int mask;
+
+	/**
+	 * The next tick to process, guarded by the lock of the {@link #wheel}
+	 */
+	private long tick=0;
+
+	/**
+	 * The point in time (nsec) when the wheel started.
+	 * All the deadlines are relative to this time.
+	 */
+	private final long startTime;
+
+	/**
+	 * The executor to run the expired tasks
+	 */
+	private final Executor taskExecutor;
+
+	/**
+	 * The thread that advances the wheel
+	 */
+	private final Thread workerThread;
+
+	/**
+	 * The timeouts expired in the current tick: only used by the {@link #workerThread}
+	 */
+	private final List<Timeout> expiredTimeouts = new ArrayList<>();
+
+	/**
+	 * Signal the worker thread to terminate
+	 */
+	private volatile boolean stopped=false;
+
+	/**
+	 * Constructor
+	 *
+	 * @param tickDuration The duration (msec) of a tick: it is the precision of the timer
+	 * @param wheelSize The number of buckets of the wheel, rounded up to the next power of 2
+	 * @param threadFactory The factory to create the thread that advances the wheel
+	 * @param taskExecutor The executor to run the expired tasks
+	 */
+	public HashedWheelTimer(long tickDuration, int wheelSize, ThreadFactory threadFactory, Executor taskExecutor) {
+		if (tickDuration<=0) {
+			throw new IllegalArgumentException("Invalid tick duration "+tickDuration);
+		}
+		if (wheelSize<=0 || wheelSize>(1<<30)) {
+			throw new IllegalArgumentException("Invalid wheel size "+wheelSize);
+		}
+		Objects.requireNonNull(threadFactory,"The thread factory can't be null");
+		Objects.requireNonNull(taskExecutor,"The executor can't be null");
+		this.tickDuration=tickDuration;
+		this.tickNanos=TimeUnit.MILLISECONDS.toNanos(tickDuration);
+		int size=1;
+		while (size<wheelSize) {
+			size<<=1;
+		}
+		this.wheel = new Bucket[size];
+		for (int t=0; t<size; t++) {
+			wheel[t]=new Bucket();
+		}
+		this.mask=size-1;
+		this.taskExecutor=taskExecutor;
+		this.startTime=System.nanoTime();
+		this.workerThread=threadFactory.newThread(this::advance);
+		this.workerThread.start();
+		logger.debug("Timer wheel with {} buckets and a tick of {}ms started",size,tickDuration);
+	}
+
+	/**
+	 * The loop of the {@link #workerThread} that advances
+	 * the wheel at every tick
+	 */
+	private void advance() {
+		while (!stopped) {
+			long nextTickTime;
+			synchronized (wheel) {
+				nextTickTime=(tick+1)*tickNanos;
+			}
+			long sleepTime = nextTickTime-(System.nanoTime()-startTime);
+			if (sleepTime>0) {
+				LockSupport.parkNanos(sleepTime);
+				continue;
+			}
+			expireTimeouts();
+		}
+		logger.debug("Timer wheel thread terminated");
+	}
+
+	/**
+	 * Process the bucket of the current tick: the timeouts
+	 * in their last round are submitted to the executor.
+	 * Periodic timeouts are then inserted again in the wheel.
+	 */
+	private void expireTimeouts() {
+		synchronized (wheel) {
+			Bucket bucket = wheel[(int)(tick & mask)];
+			tick++;
+			Timeout timeout = bucket.head;
+			while (timeout!=null) {
+				Timeout next = timeout.next;
+				if (timeout.remainingRounds<=0) {
+					bucket.remove(timeout);
+					expiredTimeouts.add(timeout);
+					if (timeout.period>0) {
+						timeout.deadline+=timeout.period;
+						insert(timeout);
+					}
+				} else {
+					timeout.remainingRounds--;
+				}
+				timeout=next;
+			}
+		}
+		for (Timeout timeout: expiredTimeouts) {
+			try {
+				taskExecutor.execute(timeout);
+			} catch (Exception e) {
+				logger.error("Error submitting an expired task to the executor",e);
+			}
+		}
+		expiredTimeouts.clear();
+	}
+
+	/**
+	 * Insert the timeout in the bucket of its deadline.
+	 * <P>
+	 * Must be called while holding the lock of the {@link #wheel}.
+	 *
+	 * @param timeout The timeout to insert in the wheel
+	 */
+	private void insert(Timeout timeout) {
+		// The bucket of tick n is processed at (n+1)*tickNanos
+		long ticks = Math.max((timeout.deadline+tickNanos-1)/tickNanos-1, tick);
+		timeout.remainingRounds=(ticks-tick)/wheel.length;
+		wheel[(int)(ticks & mask)].add(timeout);
+	}
+
+	/**
+	 * Builds a timeout and inserts it in the wheel
+	 *
+	 * @param task The task to run
+	 * @param delay The delay before the first execution
+	 * @param period The period, 0 for tasks to run only once
+	 * @param unit the time unit of the delay and the period
+	 * @return The timeout inserted in the wheel
+	 */
+	private Timeout newTimeout(Runnable task, long delay, long period, TimeUnit unit) {
+		Objects.requireNonNull(task,"The task can't be null");
+		Objects.requireNonNull(unit,"The time unit can't be null");
+		if (stopped) {
+			throw new IllegalStateException("The timer wheel has been shut down");
+		}
+		Timeout timeout = new Timeout(task, System.nanoTime()-startTime+unit.toNanos(Math.max(0, delay)), unit.toNanos(period));
+		synchronized (wheel) {
+			insert(timeout);
+		}
+		return timeout;
+	}
+
+	/**
+	 * @see RefreshScheduler#scheduleAtFixedRate(Runnable, long, long, TimeUnit)
+	 */
+	@Override
+	public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+		if (period<=0) {
+			throw new IllegalArgumentException("Invalid period "+period);
+		}
+		return newTimeout(task, initialDelay, period, unit);
+	}
+
+	/**
+	 * @see RefreshScheduler#schedule(Runnable, long, TimeUnit)
+	 */
+	@Override
+	public ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+		return newTimeout(task, delay, 0, unit);
+	}
+
+	/**
+	 * Stop the thread that advances the wheel and cancel all the scheduled tasks
+	 *
+	 * @see RefreshScheduler#shutdown()
+	 */
+	@Override
+	public void shutdown() {
+		stopped=true;
+		LockSupport.unpark(workerThread);
+		List<Timeout> pending = new ArrayList<>();
+		synchronized (wheel) {
+			for (Bucket bucket: wheel) {
+				for (Timeout t=bucket.head; t!=null; t=t.next) {
+					pending.add(t);
+				}
+			}
+		}
+		pending.forEach(t -> t.cancel(false));
+		logger.debug("Timer wheel shut down: {} tasks cancelled",pending.size());
+	}
+}
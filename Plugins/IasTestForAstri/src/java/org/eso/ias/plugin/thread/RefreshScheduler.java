@@ -0,0 +1,50 @@
+package org.eso.ias.plugin.thread;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The scheduler of the tasks that periodically resend the
+ * values of the monitor points to the core of the IAS
+ * when their refresh rate elapses.
+ * <P>
+ * Each monitor point has its own refresh task: the plugin
+ * can select the implementation that better fits with the
+ * number of monitor points to refresh:
+ * <UL>
+ * 	<LI>{@link ExecutorRefreshScheduler} delegates to a {@link java.util.concurrent.ScheduledExecutorService}
+ *  <LI>{@link HashedWheelTimer} scales to many thousands of tasks
+ * </UL>
+ *
+ * @author acaproni
+ *
+ */
+public interface RefreshScheduler {
+
+	/**
+	 * Schedule a periodic task that runs for the first time after
+	 * the initial delay and then every period.
+	 *
+	 * @param task The not <code>null</code> task to run
+	 * @param initialDelay The delay before the first execution
+	 * @param period The period between successive executions
+	 * @param unit The time unit of the delay and the period
+	 * @return The future to cancel the task
+	 */
+	public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit);
+
+	/**
+	 * Schedule a task that runs only once after the passed delay
+	 *
+	 * @param task The not <code>null</code> task to run
+	 * @param delay The delay before the execution
+	 * @param unit The time unit of the delay
+	 * @return The future to cancel the task
+	 */
+	public ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit);
+
+	/**
+	 * Stop the scheduler: tasks not yet run are cancelled.
+	 */
+	public void shutdown();
+}
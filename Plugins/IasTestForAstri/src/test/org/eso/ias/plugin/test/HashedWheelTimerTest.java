@@ -0,0 +1,139 @@
+package org.eso.ias.plugin.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eso.ias.plugin.thread.HashedWheelTimer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the scheduling and the cancellation of the tasks
+ * of the {@link HashedWheelTimer}
+ *
+ * @author acaproni
+ *
+ */
+public class HashedWheelTimerTest {
+
+	/**
+	 * The duration (msec) of the tick of the wheel
+	 */
+	private static final long tickDuration = 10;
+
+	/**
+	 * The number of buckets of the wheel: small so that
+	 * the tests schedule tasks farther then one revolution
+	 */
+	private static final int wheelSize = 8;
+
+	/**
+	 * The tolerance (msec) for the delays of the threads
+	 */
+	private static final long tolerance = 30;
+
+	/**
+	 * The timer wheel to test
+	 */
+	private HashedWheelTimer timer;
+
+	@BeforeEach
+	public void setUp() {
+		timer = new HashedWheelTimer(tickDuration, wheelSize, r -> {
+			Thread t = new Thread(r, "HashedWheelTimerTest");
+			t.setDaemon(true);
+			return t;
+		}, Runnable::run);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		timer.shutdown();
+	}
+
+	/**
+	 * A task runs not before its deadline and at most one tick after it,
+	 * also if the deadline is farther then one revolution of the wheel
+	 */
+	@Test
+	public void testTaskRunsAtTheDeadline() throws Exception {
+		long[] delays = { 0, 3*tickDuration, 3*wheelSize*tickDuration+5 };
+		for (long delay: delays) {
+			AtomicLong runTime = new AtomicLong(0);
+			long start = System.nanoTime();
+			ScheduledFuture<?> future = timer.schedule(() -> runTime.set(System.nanoTime()), delay, TimeUnit.MILLISECONDS);
+			future.get(delay+1000, TimeUnit.MILLISECONDS);
+			assertTrue(future.isDone());
+
+			long elapsed = TimeUnit.NANOSECONDS.toMillis(runTime.get()-start);
+			assertTrue(elapsed>=delay, "Task with delay "+delay+" run too early: "+elapsed);
+			assertTrue(elapsed<=delay+tickDuration+tolerance, "Task with delay "+delay+" run too late: "+elapsed);
+		}
+	}
+
+	/**
+	 * A cancelled task never runs and cannot be cancelled again
+	 */
+	@Test
+	public void testCancel() throws Exception {
+		AtomicInteger numOfRuns = new AtomicInteger(0);
+		ScheduledFuture<?> future = timer.schedule(numOfRuns::incrementAndGet, 5*tickDuration, TimeUnit.MILLISECONDS);
+		assertTrue(future.cancel(false));
+		assertTrue(future.isCancelled());
+		assertTrue(future.isDone());
+		assertFalse(future.cancel(false));
+
+		Thread.sleep(10*tickDuration);
+		assertEquals(0, numOfRuns.get());
+
+		// A task that already run cannot be cancelled
+		ScheduledFuture<?> done = timer.schedule(numOfRuns::incrementAndGet, tickDuration, TimeUnit.MILLISECONDS);
+		done.get(1, TimeUnit.SECONDS);
+		assertFalse(done.cancel(false));
+		assertFalse(done.isCancelled());
+		assertEquals(1, numOfRuns.get());
+	}
+
+	/**
+	 * A periodic task runs every period until cancelled
+	 */
+	@Test
+	public void testFixedRate() throws Exception {
+		long period = 5*tickDuration;
+		int numOfPeriods = 6;
+		AtomicInteger numOfRuns = new AtomicInteger(0);
+		ScheduledFuture<?> future = timer.scheduleAtFixedRate(numOfRuns::incrementAndGet, period, period, TimeUnit.MILLISECONDS);
+		Thread.sleep(numOfPeriods*period+period/2);
+		assertTrue(future.cancel(false));
+		int runs = numOfRuns.get();
+		assertTrue(runs>=numOfPeriods-1 && runs<=numOfPeriods, "Unexpected number of runs "+runs);
+
+		Thread.sleep(2*period);
+		assertEquals(runs, numOfRuns.get(), "The task run after the cancellation");
+		assertThrows(IllegalArgumentException.class, () -> timer.scheduleAtFixedRate(() -> {}, 0, 0, TimeUnit.MILLISECONDS));
+	}
+
+	/**
+	 * The shutdown cancels the scheduled tasks and
+	 * rejects the new ones
+	 */
+	@Test
+	public void testShutdown() throws Exception {
+		AtomicInteger numOfRuns = new AtomicInteger(0);
+		ScheduledFuture<?> future = timer.schedule(numOfRuns::incrementAndGet, 5*tickDuration, TimeUnit.MILLISECONDS);
+		timer.shutdown();
+		assertTrue(future.isCancelled());
+		assertThrows(IllegalStateException.class, () -> timer.schedule(() -> {}, 0, TimeUnit.MILLISECONDS));
+
+		Thread.sleep(10*tickDuration);
+		assertEquals(0, numOfRuns.get());
+	}
+}
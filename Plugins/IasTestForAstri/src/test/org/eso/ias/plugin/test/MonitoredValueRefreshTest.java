@@ -0,0 +1,149 @@
+package org.eso.ias.plugin.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eso.ias.plugin.MonitoredValue;
+import org.eso.ias.plugin.Sample;
+import org.eso.ias.plugin.thread.ExecutorRefreshScheduler;
+import org.eso.ias.plugin.thread.RefreshScheduler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the periodic refresh of the {@link MonitoredValue}:
+ * the load on the scheduler must not depend on the rate of the samples.
+ * 
+ * @author acaproni
+ *
+ */
+public class MonitoredValueRefreshTest {
+	
+	/**
+	 * A {@link RefreshScheduler} that counts the scheduled tasks
+	 * 
+	 * @author acaproni
+	 */
+	private static class CountingScheduler extends ExecutorRefreshScheduler {
+		
+		/**
+		 * The number of tasks scheduled
+		 */
+		public final AtomicInteger numOfScheduledTasks = new AtomicInteger(0);
+
+		/**
+		 * Constructor
+		 * 
+		 * @param executorSvc The executor to delegate the scheduling to
+		 */
+		public CountingScheduler(ScheduledExecutorService executorSvc) {
+			super(executorSvc);
+		}
+
+		@Override
+		public ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+			numOfScheduledTasks.incrementAndGet();
+			return super.schedule(task, delay, unit);
+		}
+	}
+	
+	/**
+	 * The refresh rate of the monitor points
+	 */
+	private static final long refreshRate = 200;
+	
+	/**
+	 * The executor to schedule the refresh
+	 */
+	private ScheduledExecutorService executorSvc;
+	
+	/**
+	 * The scheduler of the refresh
+	 */
+	private CountingScheduler scheduler;
+	
+	/**
+	 * The points in time when the listener received a value
+	 */
+	private final List<Long> notificationTimes = Collections.synchronizedList(new ArrayList<>());
+	
+	@BeforeEach
+	public void setUp() {
+		executorSvc = Executors.newSingleThreadScheduledExecutor();
+		scheduler = new CountingScheduler(executorSvc);
+		notificationTimes.clear();
+	}
+	
+	@AfterEach
+	public void tearDown() {
+		executorSvc.shutdownNow();
+	}
+	
+	/**
+	 * Samples submitted faster then the refresh rate do not schedule 
+	 * any task and the timer task runs at most once per refresh period
+	 */
+	@Test
+	public void testSchedulingDoesNotDependOnSamples() throws Exception {
+		MonitoredValue mv = new MonitoredValue("ID", refreshRate, scheduler, v -> notificationTimes.add(System.currentTimeMillis()));
+		assertEquals(1, scheduler.numOfScheduledTasks.get(), "The constructor schedules one task");
+		
+		long start = System.currentTimeMillis();
+		long timestamp = start;
+		int numOfPeriods=5;
+		while (System.currentTimeMillis()<start+numOfPeriods*refreshRate) {
+			mv.submitSample(new Sample(Long.valueOf(timestamp), ++timestamp));
+		}
+		// The timer task runs at most once per period (+1 for the slot of the first period
+		// and +1 for the task that could be running right now)
+		int scheduled = scheduler.numOfScheduledTasks.get();
+		assertTrue(scheduled<=numOfPeriods+3, "Too many tasks scheduled: "+scheduled);
+		assertTrue(timestamp-start>numOfPeriods*10, "Too few samples submitted");
+	}
+	
+	/**
+	 * The last value is resent within the refresh rate after the last sample
+	 * and then every refresh rate
+	 */
+	@Test
+	public void testResendWithinRefreshRate() throws Exception {
+		MonitoredValue mv = new MonitoredValue("ID", refreshRate, scheduler, v -> notificationTimes.add(System.currentTimeMillis()));
+		mv.submitSample(new Sample(Integer.valueOf(1)));
+		Thread.sleep(5*refreshRate+refreshRate/2);
+		assertTrue(notificationTimes.size()>=5, "Too few resends: "+notificationTimes.size());
+		
+		// The tolerance allows for the delays of the scheduler
+		long tolerance=20;
+		synchronized (notificationTimes) {
+			assertTrue(notificationTimes.get(1)-notificationTimes.get(0)<=refreshRate+tolerance, "First resend too late");
+			for (int t=2; t<notificationTimes.size(); t++) {
+				long gap = notificationTimes.get(t)-notificationTimes.get(t-1);
+				assertEquals(refreshRate, gap, tolerance, "Resend out of the slot");
+			}
+		}
+	}
+	
+	/**
+	 * A refresh rate not greater then 0 is rejected, 
+	 * a refresh rate too short is clamped to the minimum allowed 
+	 */
+	@Test
+	public void testInvalidRefreshRate() throws Exception {
+		assertThrows(IllegalArgumentException.class, () -> new MonitoredValue("ID", 0, scheduler, v -> {}));
+		assertThrows(IllegalArgumentException.class, () -> new MonitoredValue("ID", -10, scheduler, v -> {}));
+		
+		MonitoredValue mv = new MonitoredValue("ID", 1, scheduler, v -> {});
+		assertEquals(MonitoredValue.minAllowedRefreshRate, mv.refreshRate);
+	}
+}
@@ -0,0 +1,152 @@
+package org.eso.ias.plugin.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eso.ias.plugin.MonitoredValue;
+import org.eso.ias.plugin.Sample;
+import org.eso.ias.plugin.SubmissionStatus;
+import org.eso.ias.plugin.filter.Filter;
+import org.eso.ias.plugin.filter.FilterException;
+import org.eso.ias.plugin.filter.FilteredValue;
+import org.eso.ias.plugin.filter.NoneFilter;
+import org.eso.ias.plugin.thread.ExecutorRefreshScheduler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the reorder buffer of the {@link MonitoredValue}:
+ * the samples arriving out of order are submitted to the filter in time order
+ * when the reorder window elapses.
+ *
+ * @author acaproni
+ *
+ */
+public class MonitoredValueReorderTest {
+
+	/**
+	 * A filter that fails for each submitted sample
+	 *
+	 * @author acaproni
+	 */
+	private static class FailingFilter implements Filter {
+
+		/**
+		 * The number of samples submitted to the filter
+		 */
+		public final AtomicInteger numOfSamples = new AtomicInteger(0);
+
+		@Override
+		public Optional<FilteredValue> newSample(Sample newSample) throws FilterException {
+			numOfSamples.incrementAndGet();
+			throw new FilterException("Filter error for test");
+		}
+
+		@Override
+		public Optional<FilteredValue> apply() {
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * The refresh rate of the monitor points: the periodic 
+	 * notification is disabled by the tests
+	 */
+	private static final long refreshRate = MonitoredValue.maxAllowedRefreshRate;
+
+	/**
+	 * The time interval (msec) to wait for the samples arriving out of order
+	 */
+	private static final long reorderWindow = 100;
+
+	/**
+	 * The executor to schedule the tasks of the monitor points
+	 */
+	private ScheduledExecutorService executorSvc;
+
+	/**
+	 * The values received by the listener
+	 */
+	private final List<Object> receivedValues = Collections.synchronizedList(new ArrayList<>());
+
+	@BeforeEach
+	public void setUp() {
+		executorSvc = Executors.newSingleThreadScheduledExecutor();
+		receivedValues.clear();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		executorSvc.shutdownNow();
+	}
+
+	/**
+	 * The samples arriving out of order in the reorder window
+	 * are sent in time order, the samples older then the
+	 * released ones are discarded
+	 */
+	@Test
+	public void testReleaseOrder() throws Exception {
+		MonitoredValue mv = new MonitoredValue(
+				"ID",
+				refreshRate,
+				new NoneFilter(),
+				reorderWindow,
+				new ExecutorRefreshScheduler(executorSvc),
+				v -> receivedValues.add(v.getValue()));
+		mv.enablePeriodicNotification(false);
+		long now = System.currentTimeMillis();
+		assertEquals(SubmissionStatus.ACCEPTED, mv.submitSample(new Sample(Integer.valueOf(3), now+3)));
+		assertEquals(SubmissionStatus.ACCEPTED, mv.submitSample(new Sample(Integer.valueOf(1), now+1)));
+		assertEquals(SubmissionStatus.ACCEPTED, mv.submitSample(new Sample(Integer.valueOf(2), now+2)));
+		assertTrue(receivedValues.isEmpty(), "Samples released before the reorder window elapsed");
+
+		Thread.sleep(3*reorderWindow);
+		assertEquals(3, receivedValues.size());
+		for (int t=0; t<receivedValues.size(); t++) {
+			assertEquals(Integer.valueOf(t+1), receivedValues.get(t), "Samples released out of order");
+		}
+
+		// A sample older then the released ones is late
+		assertEquals(SubmissionStatus.LATE_SAMPLE, mv.submitSample(new Sample(Integer.valueOf(0), now)));
+		Thread.sleep(2*reorderWindow);
+		assertEquals(3, receivedValues.size());
+	}
+
+	/**
+	 * An error of the filter while releasing the samples held in the
+	 * reorder buffer disables the monitor point
+	 */
+	@Test
+	public void testFilterErrorDisablesMonitorPoint() throws Exception {
+		FailingFilter filter = new FailingFilter();
+		MonitoredValue mv = new MonitoredValue(
+				"ID",
+				refreshRate,
+				filter,
+				reorderWindow,
+				new ExecutorRefreshScheduler(executorSvc),
+				v -> receivedValues.add(v.getValue()));
+		mv.enablePeriodicNotification(false);
+		long now = System.currentTimeMillis();
+		assertEquals(SubmissionStatus.ACCEPTED, mv.submitSample(new Sample(Integer.valueOf(1), now)));
+		assertEquals(SubmissionStatus.ACCEPTED, mv.submitSample(new Sample(Integer.valueOf(2), now+1)));
+
+		Thread.sleep(3*reorderWindow);
+		assertEquals(1, filter.numOfSamples.get(), "The other samples must be discarded after the error");
+		assertEquals(SubmissionStatus.DISABLED_MONITOR_POINT, mv.submitSample(new Sample(Integer.valueOf(3), now+2)));
+
+		Thread.sleep(2*reorderWindow);
+		assertEquals(1, filter.numOfSamples.get());
+		assertTrue(receivedValues.isEmpty(), "Values sent by a disabled monitor point");
+	}
+}
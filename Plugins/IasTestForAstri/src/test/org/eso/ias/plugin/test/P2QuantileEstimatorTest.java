@@ -0,0 +1,132 @@
+package org.eso.ias.plugin.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.eso.ias.plugin.filter.P2QuantileEstimator;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the accuracy of the {@link P2QuantileEstimator}
+ * against the exact quantiles of the same values.
+ *
+ * @author acaproni
+ *
+ */
+public class P2QuantileEstimatorTest {
+
+	/**
+	 * The number of values added to the estimators
+	 */
+	private static final int numOfValues = 20000;
+
+	/**
+	 * The quantiles to estimate
+	 */
+	private static final double[] quantiles = { 0.05, 0.25, 0.5, 0.75, 0.95, 0.99 };
+
+	/**
+	 * The max difference between the rank of the estimation and
+	 * the rank of the exact quantile, as a fraction of the number of values
+	 */
+	private static final double rankTolerance = 0.01;
+
+	/**
+	 * Check the estimations of the {@link #quantiles} of the passed values
+	 *
+	 * @param values The values to add to the estimators
+	 * @param distribution The name of the distribution of the values
+	 */
+	private void checkAccuracy(double[] values, String distribution) {
+		double[] sorted = Arrays.copyOf(values, values.length);
+		Arrays.sort(sorted);
+		for (double quantile: quantiles) {
+			P2QuantileEstimator estimator = new P2QuantileEstimator(quantile);
+			for (double value: values) {
+				estimator.add(value);
+			}
+			assertEquals(values.length, estimator.getCount());
+
+			// The fraction of the values not greater then the estimation
+			double estimation = estimator.getQuantile();
+			int rank=0;
+			while (rank<sorted.length && sorted[rank]<=estimation) {
+				rank++;
+			}
+			assertEquals(quantile, (double)rank/sorted.length, rankTolerance,
+					"Inaccurate estimation of the "+quantile+" quantile of the "+distribution+" distribution");
+		}
+	}
+
+	/**
+	 * The estimation of the quantiles of uniformly distributed values
+	 */
+	@Test
+	public void testUniformDistribution() throws Exception {
+		Random rnd = new Random(7);
+		double[] values = new double[numOfValues];
+		for (int t=0; t<numOfValues; t++) {
+			values[t]=rnd.nextDouble()*100;
+		}
+		checkAccuracy(values, "uniform");
+	}
+
+	/**
+	 * The estimation of the quantiles of normally distributed values
+	 */
+	@Test
+	public void testNormalDistribution() throws Exception {
+		Random rnd = new Random(11);
+		double[] values = new double[numOfValues];
+		for (int t=0; t<numOfValues; t++) {
+			values[t]=1000+rnd.nextGaussian()*25;
+		}
+		checkAccuracy(values, "normal");
+	}
+
+	/**
+	 * The estimation of the quantiles of skewed (exponentially distributed) values
+	 */
+	@Test
+	public void testExponentialDistribution() throws Exception {
+		Random rnd = new Random(13);
+		double[] values = new double[numOfValues];
+		for (int t=0; t<numOfValues; t++) {
+			values[t]=-Math.log(1-rnd.nextDouble())*3;
+		}
+		checkAccuracy(values, "exponential");
+	}
+
+	/**
+	 * The estimation is exact with less then 5 values and
+	 * restarts after a reset
+	 */
+	@Test
+	public void testFewValues() throws Exception {
+		P2QuantileEstimator median = new P2QuantileEstimator(0.5);
+		assertThrows(IllegalStateException.class, () -> median.getQuantile());
+		median.add(30);
+		assertEquals(30, median.getQuantile(), 0);
+		median.add(10);
+		median.add(20);
+		assertEquals(20, median.getQuantile(), 0);
+
+		P2QuantileEstimator max = new P2QuantileEstimator(1);
+		for (int t=1; t<=4; t++) {
+			max.add(5-t);
+		}
+		assertEquals(4, max.getQuantile(), 0);
+
+		median.reset();
+		assertEquals(0, median.getCount());
+		assertThrows(IllegalStateException.class, () -> median.getQuantile());
+		median.add(-1);
+		assertEquals(-1, median.getQuantile(), 0);
+
+		assertThrows(IllegalArgumentException.class, () -> new P2QuantileEstimator(1.5));
+		assertThrows(IllegalArgumentException.class, () -> new P2QuantileEstimator(Double.NaN));
+	}
+}
@@ -0,0 +1,256 @@
+package org.eso.ias.plugin.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.eso.ias.plugin.Sample;
+import org.eso.ias.plugin.ValueToSend;
+import org.eso.ias.plugin.filter.FilteredValue;
+import org.eso.ias.plugin.publisher.MonitorPointData;
+import org.eso.ias.plugin.publisher.OverflowPolicy;
+import org.eso.ias.plugin.publisher.PublisherBase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test each {@link OverflowPolicy} applied by the {@link PublisherBase}
+ * when the buffer is full.
+ * <P>
+ * The values are offered faster then the throttling time so that
+ * they are sent only when the buffer is full ({@link OverflowPolicy#SPILL})
+ * or when the throttling time elapses.
+ *
+ * @author acaproni
+ *
+ */
+public class PublisherOverflowTest {
+
+	/**
+	 * A publisher that records the published values
+	 *
+	 * @author acaproni
+	 */
+	private static class RecordingPublisher extends PublisherBase {
+
+		/**
+		 * The published values: the key is the ID of the monitor point
+		 */
+		public final Map<String, String> publishedValues = new ConcurrentHashMap<>();
+
+		/**
+		 * Constructor
+		 *
+		 * @param executorSvc The executor service
+		 * @param capacity The max number of values in the buffer
+		 * @param policy The policy applied when the buffer is full
+		 */
+		public RecordingPublisher(ScheduledExecutorService executorSvc, int capacity, OverflowPolicy policy) {
+			super("PluginID", "MonitoredSystemID", "localhost", 1000, executorSvc, capacity, policy);
+		}
+
+		@Override
+		protected long publish(MonitorPointData mpData) {
+			publishedValues.put(mpData.getId(), mpData.getValue());
+			return mpData.getValue().length();
+		}
+
+		@Override
+		protected void start() {}
+
+		@Override
+		protected void shutdown() {}
+	}
+
+	/**
+	 * The max number of values in the buffer
+	 */
+	private static final int bufferCapacity = 4;
+
+	/**
+	 * The number of monitor points whose values are offered
+	 */
+	private static final int numOfMonitorPoints = 10;
+
+	/**
+	 * The executor service of the publisher
+	 */
+	private ScheduledExecutorService executorSvc;
+
+	/**
+	 * The publisher to test
+	 */
+	private RecordingPublisher publisher;
+
+	@BeforeEach
+	public void setUp() {
+		executorSvc = Executors.newSingleThreadScheduledExecutor();
+	}
+
+	@AfterEach
+	public void tearDown() throws Exception {
+		if (publisher!=null) {
+			publisher.tearDown();
+		}
+		executorSvc.shutdownNow();
+	}
+
+	/**
+	 * Build and set up the publisher with the passed policy
+	 *
+	 * @param policy The policy applied when the buffer is full
+	 * @throws Exception in case of error setting up the publisher
+	 */
+	private void buildPublisher(OverflowPolicy policy) throws Exception {
+		publisher = new RecordingPublisher(executorSvc, bufferCapacity, policy);
+		publisher.setUp();
+	}
+
+	/**
+	 * Offer a value of a monitor point
+	 *
+	 * @param id The ID of the monitor point
+	 * @param value The value
+	 */
+	private void offer(String id, int value) {
+		Sample sample = new Sample(Integer.valueOf(value));
+		publisher.offer(new ValueToSend(id, new FilteredValue(Integer.valueOf(value), Arrays.asList(sample), sample.timestamp)));
+	}
+
+	/**
+	 * Offer one value for each of the {@link #numOfMonitorPoints}:
+	 * the value of the monitor point with ID <code>MP-n</code> is <code>n</code>
+	 */
+	private void offerAll() {
+		for (int t=0; t<numOfMonitorPoints; t++) {
+			offer("MP-"+t, t);
+		}
+	}
+
+	/**
+	 * Wait until the throttling time elapsed
+	 * and the values have been published
+	 *
+	 * @throws Exception If interrupted while waiting
+	 */
+	private void waitForPublishing() throws Exception {
+		Thread.sleep(3*PublisherBase.throttlingTime);
+	}
+
+	/**
+	 * Check that the published values are those of the monitor points
+	 * with the IDs in the passed range
+	 *
+	 * @param first The first ID (included)
+	 * @param last The last ID (included)
+	 */
+	private void checkPublished(int first, int last) {
+		assertEquals(last-first+1, publisher.publishedValues.size(), "Published "+publisher.publishedValues.keySet());
+		for (int t=first; t<=last; t++) {
+			assertEquals(String.valueOf(t), publisher.publishedValues.get("MP-"+t), "MP-"+t+" not published");
+		}
+	}
+
+	/**
+	 * {@link OverflowPolicy#SPILL} sends the values when the buffer is full
+	 * so no value is discarded
+	 */
+	@Test
+	public void testSpill() throws Exception {
+		buildPublisher(OverflowPolicy.SPILL);
+		offerAll();
+		// The values of the full buffers are sent before the throttling time
+		Thread.sleep(PublisherBase.throttlingTime/5);
+		assertTrue(publisher.publishedValues.size()>=2*bufferCapacity, "Full buffer not sent: "+publisher.publishedValues.size());
+
+		waitForPublishing();
+		checkPublished(0, numOfMonitorPoints-1);
+		assertEquals(0, publisher.getStats().numOfMonitorPointValuesDiscarded);
+	}
+
+	/**
+	 * {@link OverflowPolicy#DROP_NEW} discards the values
+	 * of the monitor points not in the full buffer
+	 */
+	@Test
+	public void testDropNew() throws Exception {
+		buildPublisher(OverflowPolicy.DROP_NEW);
+		offerAll();
+		waitForPublishing();
+		checkPublished(0, bufferCapacity-1);
+		assertEquals(numOfMonitorPoints-bufferCapacity, publisher.getStats().numOfMonitorPointValuesDiscarded);
+	}
+
+	/**
+	 * {@link OverflowPolicy#DROP_OLDEST} discards the oldest values
+	 * of the whole buffer
+	 */
+	@Test
+	public void testDropOldest() throws Exception {
+		buildPublisher(OverflowPolicy.DROP_OLDEST);
+		offerAll();
+		waitForPublishing();
+		checkPublished(numOfMonitorPoints-bufferCapacity, numOfMonitorPoints-1);
+		assertEquals(numOfMonitorPoints-bufferCapacity, publisher.getStats().numOfMonitorPointValuesDiscarded);
+	}
+
+	/**
+	 * {@link OverflowPolicy#COALESCE_LATEST} updates the values
+	 * of the monitor points in the full buffer and discards the others
+	 */
+	@Test
+	public void testCoalesceLatest() throws Exception {
+		buildPublisher(OverflowPolicy.COALESCE_LATEST);
+		offerAll();
+		// The newer value of a monitor point in the buffer replaces the older one
+		offer("MP-0", 100);
+		waitForPublishing();
+		assertEquals(bufferCapacity, publisher.publishedValues.size());
+		assertEquals("100", publisher.publishedValues.get("MP-0"));
+		for (int t=1; t<bufferCapacity; t++) {
+			assertEquals(String.valueOf(t), publisher.publishedValues.get("MP-"+t));
+		}
+		assertEquals(numOfMonitorPoints-bufferCapacity, publisher.getStats().numOfMonitorPointValuesDiscarded);
+	}
+
+	/**
+	 * {@link OverflowPolicy#BLOCK} delays the offering thread
+	 * until the value is discarded when the timeout elapses,
+	 * but not to update the values in the buffer
+	 */
+	@Test
+	public void testBlock() throws Exception {
+		buildPublisher(OverflowPolicy.BLOCK);
+		for (int t=0; t<bufferCapacity; t++) {
+			offer("MP-"+t, t);
+		}
+		long start = System.currentTimeMillis();
+		offer("MP-0", 0);
+		assertTrue(System.currentTimeMillis()-start<PublisherBase.overflowTimeout, "Update of a value in the buffer blocked");
+
+		start = System.currentTimeMillis();
+		offer("MP-"+bufferCapacity, bufferCapacity);
+		long elapsed = System.currentTimeMillis()-start;
+		assertTrue(elapsed>=PublisherBase.overflowTimeout, "Offer not blocked: "+elapsed);
+
+		waitForPublishing();
+		checkPublished(0, bufferCapacity-1);
+		assertEquals(1, publisher.getStats().numOfMonitorPointValuesDiscarded);
+	}
+
+	/**
+	 * The size of the buffer must be positive and the policy not <code>null</code>
+	 */
+	@Test
+	public void testInvalidBuffer() throws Exception {
+		assertThrows(IllegalArgumentException.class, () -> new RecordingPublisher(executorSvc, 0, OverflowPolicy.SPILL));
+		assertThrows(IllegalArgumentException.class, () -> new RecordingPublisher(executorSvc, bufferCapacity, null));
+	}
+}
@@ -0,0 +1,122 @@
+package org.eso.ias.plugin.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.eso.ias.plugin.Sample;
+import org.eso.ias.plugin.filter.NumericSampleHistory;
+import org.eso.ias.plugin.filter.SampleHistory;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the eviction of the samples from the circular buffers
+ * of the {@link SampleHistory} and the {@link NumericSampleHistory}
+ * by size and by time.
+ *
+ * @author acaproni
+ *
+ */
+public class SampleHistoryTest {
+
+	/**
+	 * The max size of the histories: bigger then the initial
+	 * capacity so that the buffers grow before evicting the samples
+	 */
+	private static final int maxSize = 40;
+
+	/**
+	 * The histories never contain more then {@link #maxSize} samples:
+	 * adding a sample to a full history evicts the oldest one
+	 */
+	@Test
+	public void testEvictionBySize() throws Exception {
+		SampleHistory history = new SampleHistory(maxSize);
+		NumericSampleHistory numericHistory = new NumericSampleHistory(maxSize);
+		assertTrue(history.isEmpty());
+		assertTrue(numericHistory.isEmpty());
+		assertNull(history.getNewest());
+		assertNull(history.getOldest());
+
+		int numOfSamples = 3*maxSize+7;
+		for (int t=0; t<numOfSamples; t++) {
+			int expectedRemoved = t<maxSize ? 0 : 1;
+			assertEquals(expectedRemoved, history.addNewest(new Sample(Integer.valueOf(t), t)));
+			assertEquals(expectedRemoved, numericHistory.addNewest(t, t));
+			assertEquals(Math.min(t+1, maxSize), history.size());
+			assertEquals(Math.min(t+1, maxSize), numericHistory.size());
+		}
+
+		// The newest sample has index 0
+		for (int t=0; t<maxSize; t++) {
+			long expected = numOfSamples-1-t;
+			assertEquals(expected, history.get(t).timestamp);
+			assertEquals(expected, numericHistory.getTimestamp(t));
+			assertEquals(expected, numericHistory.getValue(t), 0);
+		}
+		assertEquals(numOfSamples-maxSize, history.getOldest().timestamp);
+		assertEquals(numOfSamples-maxSize, numericHistory.getOldestTimestamp());
+		assertEquals(numOfSamples-maxSize, numericHistory.getOldestValue(), 0);
+		assertEquals(numOfSamples-1, numericHistory.getNewestValue(), 0);
+
+		List<Sample> samples = history.toList();
+		assertEquals(maxSize, samples.size());
+		for (int t=0; t<maxSize; t++) {
+			assertSame(history.get(t), samples.get(t));
+		}
+
+		assertThrows(IndexOutOfBoundsException.class, () -> history.get(maxSize));
+		assertThrows(IndexOutOfBoundsException.class, () -> numericHistory.getValue(-1));
+		assertThrows(IllegalArgumentException.class, () -> new SampleHistory(0));
+		assertThrows(IllegalArgumentException.class, () -> new NumericSampleHistory(-1));
+	}
+
+	/**
+	 * The samples older or equal to a timestamp are evicted
+	 * and the newest ones kept in order
+	 */
+	@Test
+	public void testEvictionByTime() throws Exception {
+		SampleHistory history = new SampleHistory(maxSize);
+		NumericSampleHistory numericHistory = new NumericSampleHistory(maxSize);
+		// Wrap around the circular buffers before evicting
+		int numOfSamples = maxSize+maxSize/2;
+		for (int t=0; t<numOfSamples; t++) {
+			history.addNewest(new Sample(Integer.valueOf(t), 10L*t));
+			numericHistory.addNewest(t, 10L*t);
+		}
+		long oldest = 10L*(numOfSamples-maxSize);
+		assertEquals(0, history.removeOlderThan(oldest-1));
+		assertEquals(0, numericHistory.removeOlderThan(oldest-1));
+
+		// Removes the samples with timestamp oldest, oldest+10 and oldest+20
+		assertEquals(3, history.removeOlderThan(oldest+25));
+		assertEquals(3, numericHistory.removeOlderThan(oldest+25));
+		assertEquals(maxSize-3, history.size());
+		assertEquals(maxSize-3, numericHistory.size());
+		assertEquals(oldest+30, history.getOldest().timestamp);
+		assertEquals(oldest+30, numericHistory.getOldestTimestamp());
+		assertEquals(10L*(numOfSamples-1), history.getNewest().timestamp);
+
+		assertEquals(maxSize-3-5, history.keepNewest(5));
+		assertEquals(maxSize-3-5, numericHistory.keepNewest(5));
+		assertEquals(10L*(numOfSamples-5), history.getOldest().timestamp);
+		assertEquals(10L*(numOfSamples-5), numericHistory.getOldestTimestamp());
+
+		// Adding samples after the eviction
+		history.addNewest(new Sample(Integer.valueOf(numOfSamples), 10L*numOfSamples));
+		numericHistory.addNewest(numOfSamples, 10L*numOfSamples);
+		assertEquals(6, history.size());
+		assertEquals(10L*numOfSamples, history.get(0).timestamp);
+		assertEquals(numOfSamples, numericHistory.getNewestValue(), 0);
+
+		assertEquals(6, history.removeOlderThan(Long.MAX_VALUE));
+		assertEquals(6, numericHistory.clear());
+		assertTrue(history.isEmpty());
+		assertTrue(numericHistory.isEmpty());
+	}
+}
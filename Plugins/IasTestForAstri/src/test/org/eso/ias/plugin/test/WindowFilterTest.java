@@ -0,0 +1,133 @@
+package org.eso.ias.plugin.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+
+import org.eso.ias.plugin.Sample;
+import org.eso.ias.plugin.filter.Filter;
+import org.eso.ias.plugin.filter.FilterException;
+import org.eso.ias.plugin.filter.MeanFilter;
+import org.eso.ias.plugin.filter.StdDevFilter;
+import org.eso.ias.plugin.filter.VarianceFilter;
+import org.eso.ias.plugin.filter.WindowFilterBase;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the filters that calculate the statistics over a sliding window
+ * ({@link WindowFilterBase}): the eviction of the samples from the window
+ * by size and by time and the numerical stability of the variance.
+ *
+ * @author acaproni
+ *
+ */
+public class WindowFilterTest {
+
+	/**
+	 * Submit a sample to the filter and return the filtered value
+	 *
+	 * @param filter The filter
+	 * @param value The value of the sample
+	 * @param timestamp The timestamp of the sample
+	 * @return the filtered value
+	 * @throws FilterException in case of error submitting the sample
+	 */
+	private static double submit(Filter filter, double value, long timestamp) throws FilterException {
+		return ((Double)filter.newSample(new Sample(Double.valueOf(value), timestamp)).get().getValue()).doubleValue();
+	}
+
+	/**
+	 * Calculate the sample variance of the newest values with
+	 * the (stable) two pass algorithm
+	 *
+	 * @param values The values
+	 * @param newest The index of the newest value
+	 * @param n The number of values in the window
+	 * @return the sample variance of the values in the window
+	 */
+	private static double exactVariance(double[] values, int newest, int n) {
+		if (n<2) {
+			return 0;
+		}
+		double mean=0;
+		for (int t=newest-n+1; t<=newest; t++) {
+			mean+=values[t];
+		}
+		mean/=n;
+		double sumOfSquares=0;
+		for (int t=newest-n+1; t<=newest; t++) {
+			sumOfSquares+=(values[t]-mean)*(values[t]-mean);
+		}
+		return sumOfSquares/(n-1);
+	}
+
+	/**
+	 * The window contains at most the newest samples
+	 */
+	@Test
+	public void testWindowBySize() throws Exception {
+		int windowSize = 5;
+		MeanFilter mean = new MeanFilter(windowSize);
+		for (int t=1; t<=20; t++) {
+			// Mean of the values from max(1,t-windowSize+1) to t
+			int first = Math.max(1, t-windowSize+1);
+			assertEquals((first+t)/2.0, submit(mean, t, t), 1E-9, "Wrong mean after "+t+" samples");
+		}
+		assertThrows(IllegalArgumentException.class, () -> new MeanFilter(0, 0));
+	}
+
+	/**
+	 * The window contains the samples of the last time interval
+	 * as per the timestamp of the newest sample
+	 */
+	@Test
+	public void testWindowByTime() throws Exception {
+		long windowTime = 100;
+		MeanFilter mean = new MeanFilter(0, windowTime);
+		// One sample every 10ms: the window contains the newest 10 samples
+		for (int t=1; t<=50; t++) {
+			int first = Math.max(1, t-9);
+			assertEquals((first+t)/2.0, submit(mean, t, 10L*t), 1E-9, "Wrong mean after "+t+" samples");
+		}
+		// A gap longer then the window leaves only the new sample in the window
+		assertEquals(-7, submit(mean, -7, 10L*50+windowTime+1), 1E-9);
+
+		// Limited by size and by time
+		MeanFilter sizeAndTime = new MeanFilter(3, windowTime);
+		assertEquals(1, submit(sizeAndTime, 1, 0), 1E-9);
+		assertEquals(1.5, submit(sizeAndTime, 2, 10), 1E-9);
+		assertEquals(2, submit(sizeAndTime, 3, 20), 1E-9);
+		assertEquals(3, submit(sizeAndTime, 4, 30), 1E-9);
+		assertEquals(4.5, submit(sizeAndTime, 5, 120), 1E-9);
+	}
+
+	/**
+	 * The variance calculated with the running sums is as accurate as
+	 * the two pass algorithm also for values with a big offset and a
+	 * small spread, across many recalculations of the sums
+	 * and after a change of the level of the values
+	 */
+	@Test
+	public void testVarianceStability() throws Exception {
+		int windowSize = 64;
+		int numOfSamples = 100*windowSize;
+		Random rnd = new Random(17);
+		double[] values = new double[numOfSamples];
+		for (int t=0; t<numOfSamples; t++) {
+			// The level jumps from 1E9 to 1E-3 in the middle of the samples
+			double level = t<numOfSamples/2 ? 1E9 : 1E-3;
+			values[t]=level+rnd.nextGaussian()*level*1E-6;
+		}
+
+		VarianceFilter variance = new VarianceFilter(windowSize, 0);
+		StdDevFilter stdDev = new StdDevFilter(windowSize, 0);
+		for (int t=0; t<numOfSamples; t++) {
+			double expected = exactVariance(values, t, Math.min(t+1, windowSize));
+			double tolerance = Math.max(expected*1E-6, 1E-30);
+			assertEquals(expected, submit(variance, values[t], t), tolerance, "Inaccurate variance after "+(t+1)+" samples");
+			assertEquals(Math.sqrt(expected), submit(stdDev, values[t], t), Math.sqrt(expected)*1E-6+1E-15,
+					"Inaccurate standard deviation after "+(t+1)+" samples");
+		}
+	}
+}